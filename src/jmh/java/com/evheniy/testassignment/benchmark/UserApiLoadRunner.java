@@ -0,0 +1,125 @@
+package com.evheniy.testassignment.benchmark;
+
+import com.evheniy.testassignment.TestAssignmentApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UserApiLoadRunner {
+
+    private static final String SEARCH_BODY = "{\"startDate\":\"1950-01-01\",\"endDate\":\"2000-12-31\"}";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        String path = options.getOrDefault("path", "/api/user/_search/page?size=20");
+
+        List<String> report = new ArrayList<>();
+        report.add(run("platform", new String[0], concurrency, warmupSeconds, durationSeconds, path));
+        if (Runtime.version().feature() >= 21) {
+            report.add(run("virtual", new String[]{"virtual-threads"}, concurrency, warmupSeconds, durationSeconds, path));
+        } else {
+            report.add("virtual   skipped, requires Java 21 (build with -Pjava21)");
+        }
+
+        System.out.println();
+        System.out.printf("%-9s %12s %10s %10s %10s %8s%n", "mode", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String mode, String[] profiles, int concurrency, int warmupSeconds,
+                              int durationSeconds, String path) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TestAssignmentApplication.class)
+                .profiles(profiles)
+                .run("--server.port=0", "--spring.devtools.restart.enabled=false")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + path);
+
+            drive(uri, concurrency, warmupSeconds);
+            Result result = drive(uri, concurrency, durationSeconds);
+
+            long[] latencies = result.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return String.format("%-9s %12.1f %10.2f %10.2f %10.2f %8d", mode,
+                    latencies.length / (double) durationSeconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    percentile(latencies, 1.0), result.errors.get());
+        }
+    }
+
+    private static Result drive(URI uri, int concurrency, int seconds) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(SEARCH_BODY))
+                .build();
+
+        Result result = new Result();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<CompletableFuture<Void>> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.add(loop(client, request, deadline, result));
+        }
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+        return result;
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long deadline, Result result) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null || response.statusCode() != 200) {
+                        result.errors.incrementAndGet();
+                    } else {
+                        result.latencies.add(System.nanoTime() - start);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, request, deadline, result));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static class Result {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
@@ -0,0 +1,74 @@
+package com.evheniy.testassignment.benchmark;
+
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.mapper.UserMapper;
+import com.evheniy.testassignment.mapper.UserMapperImpl;
+import com.evheniy.testassignment.model.User;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setEmail("user" + i + "@example.com");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setBirthDate(LocalDate.of(1950, 1, 1).plusDays(i));
+            user.setAddress("1234 Street");
+            user.setPhoneNumber("444-5478");
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public List<UserResponseDto> modelMapper() {
+        List<UserResponseDto> result = new ArrayList<>(users.size());
+        for (User user : users) {
+            result.add(modelMapper.map(user, UserResponseDto.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<UserResponseDto> userMapper() {
+        List<UserResponseDto> result = new ArrayList<>(users.size());
+        for (User user : users) {
+            result.add(userMapper.toResponseDto(user));
+        }
+        return result;
+    }
+}
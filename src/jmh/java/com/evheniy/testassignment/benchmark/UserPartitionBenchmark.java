@@ -0,0 +1,120 @@
+package com.evheniy.testassignment.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserPartitionBenchmark {
+
+    private static final int INSERT_BATCH = 500;
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"heap", "partitioned"})
+    private String layout;
+
+    private EmbeddedPostgres postgres;
+    private Connection connection;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        connection = postgres.getPostgresDatabase().getConnection();
+
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        String changelog = "partitioned".equals(layout)
+                ? "db/changelog/db.changelog-partitioned.xml"
+                : "db/changelog/db.changelog-master.xml";
+        new Liquibase(changelog, new ClassLoaderResourceAccessor(), database).update(new Contexts(), new LabelExpression());
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (email, first_name, last_name, birth_date, phone_number) " +
+                    "SELECT 'bench-' || n || '@example.com', 'First' || n, 'Last' || n, DATE '1930-01-01' + (n % 30000), " +
+                    "CASE WHEN n % 3 = 0 THEN NULL ELSE '555-' || n END FROM generate_series(1, " + rows + ") AS n");
+            statement.execute("VACUUM ANALYZE");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        connection.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public int rangePage() throws SQLException {
+        return count("SELECT id, email, first_name, last_name, birth_date FROM users " +
+                "WHERE birth_date BETWEEN DATE '1990-01-01' AND DATE '1990-03-31' ORDER BY birth_date, id LIMIT 100");
+    }
+
+    @Benchmark
+    public int decadeScan() throws SQLException {
+        return count("SELECT id FROM users " +
+                "WHERE birth_date >= DATE '1990-01-01' AND birth_date < DATE '2000-01-01' AND phone_number IS NULL");
+    }
+
+    @Benchmark
+    public int insertBatch() throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO users (email, first_name, last_name, birth_date) VALUES (?, 'Insert', 'Benchmark', ?)")) {
+            for (int i = 0; i < INSERT_BATCH; i++) {
+                long n = sequence++;
+                statement.setString(1, "insert-" + n + "@example.com");
+                statement.setDate(2, Date.valueOf(LocalDate.of(1930, 1, 1).plusDays(n % 30000)));
+                statement.addBatch();
+            }
+            return statement.executeBatch().length;
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private int count(String sql) throws SQLException {
+        int count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql); ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,116 @@
+package com.evheniy.testassignment.benchmark;
+
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+    private ObjectWriter listWriter;
+    private ObjectWriter userWriter;
+    private ObjectWriter cborListWriter;
+    private ObjectWriter cborUserWriter;
+    private ObjectWriter smileListWriter;
+    private List<UserResponseDto> users;
+
+    @Setup
+    public void setUp() throws IOException {
+        listWriter = objectMapper.writerFor(new TypeReference<List<UserResponseDto>>() {
+        });
+        userWriter = objectMapper.writerFor(UserResponseDto.class);
+        cborListWriter = cborMapper.writerFor(new TypeReference<List<UserResponseDto>>() {
+        });
+        cborUserWriter = cborMapper.writerFor(UserResponseDto.class);
+        smileListWriter = smileMapper.writerFor(new TypeReference<List<UserResponseDto>>() {
+        });
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(new UserResponseDto((long) i, "user" + i + "@example.com", "First" + i, "Last" + i,
+                    LocalDate.of(1950, 1, 1).plusDays(i % 20_000)));
+        }
+        reportPayloadSizes();
+    }
+
+    private void reportPayloadSizes() throws IOException {
+        System.out.printf("%npayload bytes for %d users: json=%d, json+gzip=%d, ndjson=%d, cbor=%d, cbor-seq=%d, smile=%d%n",
+                size, jsonArray().length, jsonArrayGzip().length, ndjson().length, cborArray().length,
+                cborSeq().length, smileArray().length);
+    }
+
+    @Benchmark
+    public byte[] jsonArray() throws IOException {
+        return listWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] ndjson() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(users.size() * 96);
+        for (UserResponseDto user : users) {
+            outputStream.write(userWriter.writeValueAsBytes(user));
+            outputStream.write('\n');
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] jsonArrayGzip() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(users.size() * 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(outputStream)) {
+            listWriter.writeValue(gzip, users);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cborArray() throws IOException {
+        return cborListWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] cborSeq() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(users.size() * 80);
+        for (UserResponseDto user : users) {
+            outputStream.write(cborUserWriter.writeValueAsBytes(user));
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] smileArray() throws IOException {
+        return smileListWriter.writeValueAsBytes(users);
+    }
+}
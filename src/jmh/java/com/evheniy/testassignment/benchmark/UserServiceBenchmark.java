@@ -0,0 +1,108 @@
+package com.evheniy.testassignment.benchmark;
+
+import com.evheniy.testassignment.TestAssignmentApplication;
+import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserPageResponseDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.service.UserBulkService;
+import com.evheniy.testassignment.service.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int SEEDED_USERS = 20_000;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    private Long userId;
+    private UserDateRangeDto yearRange;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(TestAssignmentApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN");
+        userService = context.getBean(UserService.class);
+
+        List<UserRequestDto> users = IntStream.range(0, SEEDED_USERS)
+                .mapToObj(i -> user("seed" + i + "@example.com", LocalDate.of(1950, 1, 1).plusDays(i)))
+                .toList();
+        context.getBean(UserBulkService.class).createUsers(users.iterator());
+
+        userId = userService.createUser(user("cached@example.com", LocalDate.of(1990, 1, 1))).getId();
+        yearRange = new UserDateRangeDto(LocalDate.of(1980, 1, 1), LocalDate.of(1980, 12, 31));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public UserResponseDto getUser() {
+        return userService.getUser(userId);
+    }
+
+    @Benchmark
+    public List<UserResponseDto> searchYear() {
+        return userService.findUsersByBirthDateRange(yearRange);
+    }
+
+    @Benchmark
+    public UserPageResponseDto searchFirstPage() {
+        return userService.findUsersPageByBirthDateRange(yearRange, null, 100);
+    }
+
+    @Benchmark
+    public UserResponseDto createAndRemoveUser() {
+        UserResponseDto created = userService.createUser(user("bench" + sequence++ + "@example.com", LocalDate.of(1985, 6, 15)));
+        userService.removeUser(created.getId(), null);
+        return created;
+    }
+
+    private static UserRequestDto user(String email, LocalDate birthDate) {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail(email);
+        userDto.setFirstName("First");
+        userDto.setLastName("Last");
+        userDto.setBirthDate(birthDate);
+        return userDto;
+    }
+}
@@ -0,0 +1,70 @@
+package com.evheniy.testassignment.benchmark;
+
+import com.evheniy.testassignment.dto.UserRequestDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private UserRequestDto validUser;
+    private UserRequestDto invalidUser;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        validUser = new UserRequestDto();
+        validUser.setEmail("user@example.com");
+        validUser.setFirstName("First");
+        validUser.setLastName("Last");
+        validUser.setBirthDate(LocalDate.of(1990, 1, 1));
+        validUser.setAddress("1234 Street");
+        validUser.setPhoneNumber("444-5478");
+
+        invalidUser = new UserRequestDto();
+        invalidUser.setEmail("not-an-email");
+        invalidUser.setFirstName(" ");
+        invalidUser.setBirthDate(LocalDate.now().plusDays(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRequestDto>> validUser() {
+        return validator.validate(validUser);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRequestDto>> invalidUser() {
+        return validator.validate(invalidUser);
+    }
+}
@@ -0,0 +1,123 @@
+package com.evheniy.testassignment.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// AIMD: the limit grows by one while requests finish under the latency threshold and the limit is in use,
+// and shrinks by the backoff ratio whenever a request is slow or fails with a 5xx.
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Endpoint {
+        SEARCH, READ, WRITE
+    }
+
+    public enum Decision {
+        ACCEPTED, THROTTLED, SHED
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double writeReservedShare;
+    private final double perClientShare;
+    private final Map<Endpoint, Double> shares = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Long> latencyThresholdNanos = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, int[]> inFlight = new EnumMap<>(Endpoint.class);
+    private final Map<String, int[]> clientInFlight = new HashMap<>();
+    private final Map<Endpoint, Map<Decision, Counter>> decisions = new EnumMap<>(Endpoint.class);
+    private volatile double limit;
+    private int totalInFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      long latencyThresholdMillis, long searchLatencyThresholdMillis,
+                                      double searchShare, double writeReservedShare, double perClientShare,
+                                      MeterRegistry meterRegistry) {
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.writeReservedShare = writeReservedShare;
+        this.perClientShare = perClientShare;
+        shares.put(Endpoint.SEARCH, searchShare);
+        shares.put(Endpoint.READ, 1 - writeReservedShare);
+        shares.put(Endpoint.WRITE, 1.0);
+        latencyThresholdNanos.put(Endpoint.SEARCH, TimeUnit.MILLISECONDS.toNanos(searchLatencyThresholdMillis));
+        latencyThresholdNanos.put(Endpoint.READ, TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis));
+        latencyThresholdNanos.put(Endpoint.WRITE, TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis));
+
+        Gauge.builder("user.limiter.limit", this, limiter -> limiter.limit)
+                .description("Current adaptive concurrency limit for /api/user requests")
+                .register(meterRegistry);
+        for (Endpoint endpoint : Endpoint.values()) {
+            int[] count = new int[1];
+            inFlight.put(endpoint, count);
+            String tag = endpoint.name().toLowerCase();
+            Gauge.builder("user.limiter.in-flight", count, c -> c[0])
+                    .description("Requests currently admitted by the limiter")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+            Map<Decision, Counter> counters = new EnumMap<>(Decision.class);
+            for (Decision decision : Decision.values()) {
+                counters.put(decision, Counter.builder("user.limiter.decisions")
+                        .description("Limiter admission decisions")
+                        .tag("endpoint", tag)
+                        .tag("decision", decision.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            decisions.put(endpoint, counters);
+        }
+    }
+
+    public Decision acquire(Endpoint endpoint, String client) {
+        Decision decision = tryAcquire(endpoint, client);
+        decisions.get(endpoint).get(decision).increment();
+        return decision;
+    }
+
+    private synchronized Decision tryAcquire(Endpoint endpoint, String client) {
+        double current = limit;
+        // Only writes may use the reserved share, so a burst of searches cannot starve creates and updates.
+        double totalShare = endpoint == Endpoint.WRITE ? 1.0 : 1 - writeReservedShare;
+        if (totalInFlight >= allowed(current, totalShare) || inFlight.get(endpoint)[0] >= allowed(current, shares.get(endpoint))) {
+            return Decision.SHED;
+        }
+        int[] clientCount = clientInFlight.computeIfAbsent(client + "|" + endpoint, key -> new int[1]);
+        if (clientCount[0] >= allowed(current, perClientShare)) {
+            return Decision.THROTTLED;
+        }
+        clientCount[0]++;
+        inFlight.get(endpoint)[0]++;
+        totalInFlight++;
+        return Decision.ACCEPTED;
+    }
+
+    public synchronized void release(Endpoint endpoint, String client, long latencyNanos, boolean failed) {
+        String key = client + "|" + endpoint;
+        int[] clientCount = clientInFlight.get(key);
+        if (clientCount != null && --clientCount[0] <= 0) {
+            clientInFlight.remove(key);
+        }
+        inFlight.get(endpoint)[0]--;
+        int inUse = totalInFlight--;
+
+        if (failed || latencyNanos > latencyThresholdNanos.get(endpoint)) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inUse * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    private static int allowed(double limit, double share) {
+        return Math.max(1, (int) Math.ceil(limit * share));
+    }
+}
@@ -0,0 +1,24 @@
+package com.evheniy.testassignment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${user.cache.spec}") String cacheSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS_CACHE);
+        cacheManager.setCacheSpecification(cacheSpec);
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
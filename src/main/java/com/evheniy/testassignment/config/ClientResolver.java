@@ -0,0 +1,38 @@
+package com.evheniy.testassignment.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+
+public class ClientResolver {
+
+    public enum ClientKey {
+        REMOTE_ADDRESS, HEADER, PRINCIPAL
+    }
+
+    private final ClientKey clientKey;
+    private final String clientHeader;
+
+    public ClientResolver(ClientKey clientKey, String clientHeader) {
+        this.clientKey = clientKey;
+        this.clientHeader = clientHeader;
+    }
+
+    // Behind a proxy every request shares the proxy's address, so the client is keyed by the forwarded header or
+    // the authenticated principal instead; requests without one fall back to the remote address.
+    public String resolve(HttpServletRequest request) {
+        if (clientKey == ClientKey.HEADER) {
+            String forwarded = request.getHeader(clientHeader);
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        } else if (clientKey == ClientKey.PRINCIPAL) {
+            Principal principal = request.getUserPrincipal();
+            if (principal != null) {
+                return principal.getName();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
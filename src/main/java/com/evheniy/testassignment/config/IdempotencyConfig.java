@@ -0,0 +1,54 @@
+package com.evheniy.testassignment.config;
+
+import com.evheniy.testassignment.repository.IdempotencyStore;
+import com.evheniy.testassignment.repository.InMemoryIdempotencyStore;
+import com.evheniy.testassignment.repository.JdbcIdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "user.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "user.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(@Value("${user.idempotency.max-memory-bytes}") long maxBytes,
+                                                     @Value("${user.idempotency.ttl-ms}") long ttlMillis,
+                                                     @Value("${user.idempotency.in-flight-ttl-ms}") long inFlightTtlMillis) {
+        return new InMemoryIdempotencyStore(maxBytes, ttlMillis, inFlightTtlMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "user.idempotency.store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                                 @Value("${user.idempotency.ttl-ms}") long ttlMillis,
+                                                 @Value("${user.idempotency.in-flight-ttl-ms}") long inFlightTtlMillis) {
+        return new JdbcIdempotencyStore(jdbcTemplate, objectMapper, ttlMillis, inFlightTtlMillis);
+    }
+
+    // Runs ahead of the load shedding filter, so a replay is served without taking a concurrency permit.
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       @Value("${user.idempotency.client-key}") ClientResolver.ClientKey clientKey,
+                                                                       @Value("${user.idempotency.client-header}") String clientHeader,
+                                                                       @Value("${user.idempotency.max-request-bytes}") int maxRequestBytes,
+                                                                       @Value("${user.idempotency.max-response-bytes}") int maxResponseBytes,
+                                                                       MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore, new ClientResolver(clientKey, clientHeader), maxRequestBytes, maxResponseBytes, meterRegistry));
+        registration.addUrlPatterns("/api/user", "/api/user/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 100);
+        return registration;
+    }
+}
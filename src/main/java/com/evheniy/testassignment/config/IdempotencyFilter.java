@@ -0,0 +1,254 @@
+package com.evheniy.testassignment.config;
+
+import com.evheniy.testassignment.repository.IdempotencyRecord;
+import com.evheniy.testassignment.repository.IdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Replays the stored response for a repeated Idempotency-Key on POST /api/user and PUT/PATCH /api/user/{id}.
+// Bulk endpoints stream their bodies and already report duplicates per item, so they are not covered.
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final String BASE_PATH = "/api/user";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.LOCATION, "Preference-Applied");
+    // Headers that select the shape of the response; a retry that changes them is a different request.
+    private static final List<String> HASHED_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.CONTENT_TYPE, "Prefer");
+
+    private final IdempotencyStore store;
+    private final ClientResolver clientResolver;
+    private final int maxRequestBytes;
+    private final int maxResponseBytes;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyFilter(IdempotencyStore store, ClientResolver clientResolver, int maxRequestBytes,
+                             int maxResponseBytes, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.clientResolver = clientResolver;
+        this.maxRequestBytes = maxRequestBytes;
+        this.maxResponseBytes = maxResponseBytes;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(IDEMPOTENCY_KEY) == null) {
+            return true;
+        }
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.POST.matches(method)) {
+            return !path.equals(BASE_PATH);
+        }
+        if (HttpMethod.PUT.matches(method) || HttpMethod.PATCH.matches(method)) {
+            return !path.startsWith(BASE_PATH + "/") || path.startsWith(BASE_PATH + "/_")
+                    || path.indexOf('/', BASE_PATH.length() + 1) >= 0;
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, IDEMPOTENCY_KEY + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // The body is buffered to hash it, so it is capped before it is read into memory.
+        byte[] body = request.getContentLengthLong() > maxRequestBytes
+                ? null : request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body == null || body.length > maxRequestBytes) {
+            count("too_large");
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Requests with an " + IDEMPOTENCY_KEY
+                    + " must not exceed " + maxRequestBytes + " bytes");
+            return;
+        }
+        byte[] requestHash = hash(request, body);
+        String key = scopedKey(clientResolver.resolve(request), idempotencyKey);
+
+        IdempotencyRecord existing = store.reserve(key, requestHash);
+        if (existing != null) {
+            if (existing.isInFlight()) {
+                count("in_progress");
+                reject(response, HttpStatus.CONFLICT, "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+            } else if (!Arrays.equals(existing.requestHash(), requestHash)) {
+                count("mismatch");
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, IDEMPOTENCY_KEY + " was already used for a different request");
+            } else {
+                count("replayed");
+                replay(existing, response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            stored = store(key, requestHash, cachingResponse);
+            cachingResponse.copyBodyToResponse();
+        } finally {
+            if (!stored) {
+                store.release(key);
+            }
+        }
+    }
+
+    // Server errors and throttling are transient, so the key is released and a retry runs the request again.
+    private boolean store(String key, byte[] requestHash, ContentCachingResponseWrapper response) {
+        int status = response.getStatus();
+        if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return false;
+        }
+        if (response.getContentSize() > maxResponseBytes) {
+            count("too_large");
+            return false;
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : STORED_HEADERS) {
+            String value = name.equals(HttpHeaders.CONTENT_TYPE) ? response.getContentType() : response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        store.complete(key, new IdempotencyRecord(requestHash, status, headers, response.getContentAsByteArray()));
+        count("stored");
+        return true;
+    }
+
+    // Keys are chosen by clients, so two clients that pick the same one must not see each other's responses.
+    // The digest keeps the stored key within 255 characters whatever the client name is.
+    public static String scopedKey(String client, String key) {
+        return HexFormat.of().formatHex(sha256().digest((client + '\n' + key).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+        response.setStatus(record.status());
+        record.headers().forEach(response::setHeader);
+        response.setHeader(REPLAYED, "true");
+        response.setContentLength(record.body().length);
+        response.getOutputStream().write(record.body());
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    private static byte[] hash(HttpServletRequest request, byte[] body) {
+        MessageDigest digest = sha256();
+        digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString() + '\n')
+                .getBytes(StandardCharsets.UTF_8));
+        for (String name : HASHED_HEADERS) {
+            digest.update((name + ':' + String.join(",", Collections.list(request.getHeaders(name))) + '\n')
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(body);
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("user.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so the listener is told right away that all of it can be read.
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
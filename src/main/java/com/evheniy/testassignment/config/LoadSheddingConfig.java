@@ -0,0 +1,41 @@
+package com.evheniy.testassignment.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "user.load-shedding.enabled", havingValue = "true")
+public class LoadSheddingConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(@Value("${user.load-shedding.initial-limit}") int initialLimit,
+                                                                 @Value("${user.load-shedding.min-limit}") int minLimit,
+                                                                 @Value("${user.load-shedding.max-limit}") int maxLimit,
+                                                                 @Value("${user.load-shedding.backoff-ratio}") double backoffRatio,
+                                                                 @Value("${user.load-shedding.latency-threshold-ms}") long latencyThresholdMillis,
+                                                                 @Value("${user.load-shedding.search-latency-threshold-ms}") long searchLatencyThresholdMillis,
+                                                                 @Value("${user.load-shedding.search-share}") double searchShare,
+                                                                 @Value("${user.load-shedding.write-reserved-share}") double writeReservedShare,
+                                                                 @Value("${user.load-shedding.per-client-share}") double perClientShare,
+                                                                 MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMillis,
+                searchLatencyThresholdMillis, searchShare, writeReservedShare, perClientShare, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                         @Value("${user.load-shedding.retry-after-seconds}") long retryAfterSeconds,
+                                                                         @Value("${user.load-shedding.client-key}") ClientResolver.ClientKey clientKey,
+                                                                         @Value("${user.load-shedding.client-header}") String clientHeader) {
+        FilterRegistrationBean<LoadSheddingFilter> registration =
+                new FilterRegistrationBean<>(new LoadSheddingFilter(limiter, retryAfterSeconds, new ClientResolver(clientKey, clientHeader)));
+        registration.addUrlPatterns("/api/user/*");
+        return registration;
+    }
+}
@@ -0,0 +1,209 @@
+package com.evheniy.testassignment.config;
+
+import com.evheniy.testassignment.config.AdaptiveConcurrencyLimiter.Decision;
+import com.evheniy.testassignment.config.AdaptiveConcurrencyLimiter.Endpoint;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private static final String SEARCH_PATH = "/api/user/_search";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+    private final ClientResolver clientResolver;
+
+    public LoadSheddingFilter(AdaptiveConcurrencyLimiter limiter, long retryAfterSeconds, ClientResolver clientResolver) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.clientResolver = clientResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Endpoint endpoint = endpoint(request);
+        String client = clientResolver.resolve(request);
+        Decision decision = limiter.acquire(endpoint, client);
+        if (decision != Decision.ACCEPTED) {
+            reject(response, decision);
+            return;
+        }
+
+        long start = System.nanoTime();
+        // A large export streams for as long as the client reads it, so searches report latency up to the first byte.
+        FirstByteResponse timed = endpoint == Endpoint.SEARCH ? new FirstByteResponse(response) : null;
+        boolean async = false;
+        boolean failed = false;
+        try {
+            filterChain.doFilter(request, timed != null ? timed : response);
+            // Streamed searches keep their database connection until the body is written, so the permit follows the async request.
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(endpoint, client, start, response, timed));
+                async = true;
+            }
+        } catch (Throwable e) {
+            // The status is still 200 when an exception escapes the chain, so it would otherwise count as a success.
+            failed = true;
+            throw e;
+        } finally {
+            if (!async) {
+                limiter.release(endpoint, client, latency(start, timed), failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private static long latency(long start, FirstByteResponse timed) {
+        long end = timed != null && timed.firstByteNanos != 0 ? timed.firstByteNanos : System.nanoTime();
+        return end - start;
+    }
+
+    private void reject(HttpServletResponse response, Decision decision) throws IOException {
+        HttpStatus status = decision == Decision.THROTTLED ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(decision == Decision.THROTTLED
+                ? "Too many concurrent requests from this client, retry later"
+                : "Server is overloaded, retry later");
+    }
+
+    private static Endpoint endpoint(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(SEARCH_PATH)) {
+            return Endpoint.SEARCH;
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return Endpoint.READ;
+        }
+        return Endpoint.WRITE;
+    }
+
+    private class ReleaseListener implements AsyncListener {
+
+        private final Endpoint endpoint;
+        private final String client;
+        private final long start;
+        private final HttpServletResponse response;
+        private final FirstByteResponse timed;
+        private boolean released;
+
+        private ReleaseListener(Endpoint endpoint, String client, long start, HttpServletResponse response,
+                                FirstByteResponse timed) {
+            this.endpoint = endpoint;
+            this.client = client;
+            this.start = start;
+            this.response = response;
+            this.timed = timed;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            releaseOnce(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            releaseOnce(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            releaseOnce(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private synchronized void releaseOnce(boolean failed) {
+            if (!released) {
+                released = true;
+                limiter.release(endpoint, client, latency(start, timed), failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private static class FirstByteResponse extends HttpServletResponseWrapper {
+
+        private volatile long firstByteNanos;
+        private ServletOutputStream outputStream;
+
+        private FirstByteResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new FirstByteOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        private class FirstByteOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            private FirstByteOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                markFirstByte();
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (len > 0) {
+                    markFirstByte();
+                }
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+
+            private void markFirstByte() {
+                if (firstByteNanos == 0) {
+                    firstByteNanos = System.nanoTime();
+                }
+            }
+        }
+    }
+}
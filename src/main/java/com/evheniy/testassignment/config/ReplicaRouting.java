@@ -0,0 +1,48 @@
+package com.evheniy.testassignment.config;
+
+import java.util.function.Supplier;
+
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    private static final ThreadLocal<Runnable> WRITE_LISTENER = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(true);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    static void start(boolean primaryRequired, Runnable writeListener) {
+        PRIMARY_REQUIRED.set(primaryRequired);
+        WRITE_LISTENER.set(writeListener);
+    }
+
+    static void recordWrite() {
+        PRIMARY_REQUIRED.set(true);
+        Runnable listener = WRITE_LISTENER.get();
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    static void finish() {
+        PRIMARY_REQUIRED.remove();
+        WRITE_LISTENER.remove();
+    }
+}
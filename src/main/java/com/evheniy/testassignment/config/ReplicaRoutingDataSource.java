@@ -0,0 +1,181 @@
+package com.evheniy.testassignment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY_LSN = "select cast(pg_current_wal_lsn() as text)";
+
+    // A server that is not in recovery (a promoted replica or a stand-in) has nothing left to replay.
+    private static final String REPLICA_LAG = "select case when pg_is_in_recovery() " +
+            "then pg_wal_lsn_diff(cast(? as pg_lsn), pg_last_wal_replay_lsn()) else 0 end";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagBytes;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter fallbackRoutes;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, long maxLagBytes,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagBytes = maxLagBytes;
+        this.primaryRoutes = routes(meterRegistry, "primary");
+        this.replicaRoutes = routes(meterRegistry, "replica");
+        this.fallbackRoutes = routes(meterRegistry, "fallback");
+        for (Replica replica : this.replicas) {
+            Gauge.builder("user.datasource.replica.lag", replica, r -> r.lagBytes)
+                    .description("Bytes of WAL the replica still has to replay, -1 when unreachable")
+                    .baseUnit("bytes")
+                    .tag("pool", replica.dataSource.getPoolName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRouting.isPrimaryRequired()) {
+            return primaryConnection();
+        }
+        Replica replica = nextHealthyReplica();
+        if (replica == null) {
+            fallbackRoutes.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.dataSource.getConnection();
+            replicaRoutes.increment();
+            return connection;
+        } catch (SQLException e) {
+            replica.markDown();
+            LOGGER.warn("Replica {} is unavailable, reading from the primary: {}",
+                    replica.dataSource.getPoolName(), e.getMessage());
+            fallbackRoutes.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Scheduled(fixedDelayString = "${user.replicas.health-check-interval-ms}")
+    public void checkReplicas() {
+        String primaryLsn = null;
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRIMARY_LSN)) {
+            resultSet.next();
+            primaryLsn = resultSet.getString(1);
+        } catch (SQLException e) {
+            LOGGER.warn("Could not read the primary WAL position: {}", e.getMessage());
+        }
+
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(REPLICA_LAG)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    long lag = resultSet.getLong(1);
+                    // Without a primary position the lag is unknown; serving possibly stale reads beats failing them.
+                    replica.update(resultSet.wasNull() ? 0 : Math.max(lag, 0), maxLagBytes);
+                }
+            } catch (SQLException e) {
+                if (replica.healthy) {
+                    LOGGER.warn("Replica {} failed its health check: {}", replica.dataSource.getPoolName(), e.getMessage());
+                }
+                replica.markDown();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ReplicaRouting.recordWrite();
+                }
+            });
+        }
+        primaryRoutes.increment();
+        return primary.getConnection();
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static Counter routes(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("user.datasource.routes")
+                .description("Connections handed out by the routing data source")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagBytes = -1;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void update(long lagBytes, long maxLagBytes) {
+            this.lagBytes = lagBytes;
+            boolean healthy = lagBytes <= maxLagBytes;
+            if (this.healthy && !healthy) {
+                LOGGER.warn("Replica {} is {} bytes behind the primary, reading from the primary",
+                        dataSource.getPoolName(), lagBytes);
+            }
+            this.healthy = healthy;
+        }
+
+        private void markDown() {
+            healthy = false;
+            lagBytes = -1;
+        }
+    }
+}
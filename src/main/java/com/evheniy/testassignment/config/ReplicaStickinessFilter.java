@@ -0,0 +1,64 @@
+package com.evheniy.testassignment.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "user-primary-until";
+
+    private final long stickyWindowMillis;
+
+    public ReplicaStickinessFilter(long stickyWindowMillis) {
+        this.stickyWindowMillis = stickyWindowMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean[] cookieSet = {false};
+        ReplicaRouting.start(primaryUntil(request) > System.currentTimeMillis(), () -> {
+            if (!cookieSet[0] && !response.isCommitted()) {
+                ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME,
+                                String.valueOf(System.currentTimeMillis() + stickyWindowMillis))
+                        .maxAge(Duration.ofMillis(stickyWindowMillis))
+                        .path("/")
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .build();
+                response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+                cookieSet[0] = true;
+            }
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.finish();
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,45 @@
+package com.evheniy.testassignment.controller;
+
+import com.evheniy.testassignment.exception.MalformedBulkPayloadException;
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+final class JsonRecordIterator<T> implements Iterator<T>, Closeable {
+
+    private final MappingIterator<T> delegate;
+
+    JsonRecordIterator(MappingIterator<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return delegate.hasNextValue();
+        } catch (IOException e) {
+            throw malformed(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        try {
+            return delegate.nextValue();
+        } catch (IOException e) {
+            throw malformed(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private MalformedBulkPayloadException malformed(IOException e) {
+        return new MalformedBulkPayloadException("Malformed bulk payload at line "
+                + delegate.getCurrentLocation().getLineNr() + ": " + e.getMessage());
+    }
+}
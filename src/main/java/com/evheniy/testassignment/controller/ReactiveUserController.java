@@ -0,0 +1,57 @@
+package com.evheniy.testassignment.controller;
+
+import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/user")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @GetMapping("/{id}")
+    public Mono<UserResponseDto> getUser(@PathVariable Long id) {
+        return userService.getUser(id);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<UserResponseDto>> createUser(@Valid @RequestBody UserRequestDto userDto) {
+        return userService.createUser(userDto)
+                .map(user -> ResponseEntity.status(HttpStatus.CREATED).body(user));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<UserResponseDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequestDto userDto) {
+        return userService.updateUser(id, userDto);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<UserResponseDto> updateUserFields(@PathVariable Long id, @Valid @RequestBody UserUpdateFieldsDto userDto) {
+        return userService.updateUserFields(id, userDto);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<String> removeUser(@PathVariable Long id) {
+        return userService.removeUser(id)
+                .thenReturn("User was deleted successfully");
+    }
+
+    @PostMapping(value = "/_search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<UserResponseDto> getUsersByBirthDateRange(@Valid @RequestBody UserDateRangeDto dateRangeDto) {
+        return userService.findUsersByBirthDateRange(dateRangeDto);
+    }
+}
@@ -1,24 +1,73 @@
 package com.evheniy.testassignment.controller;
 
+import com.evheniy.testassignment.config.BinaryFormatConfig;
+import com.evheniy.testassignment.dto.BulkResultDto;
+import com.evheniy.testassignment.dto.BulkUserUpdateDto;
+import com.evheniy.testassignment.dto.UserAggregationGroup;
+import com.evheniy.testassignment.dto.UserAsyncUpdateDto;
+import com.evheniy.testassignment.dto.UserChangesDto;
+import com.evheniy.testassignment.dto.UserCountDto;
 import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserPageResponseDto;
 import com.evheniy.testassignment.dto.UserRequestDto;
 import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserSearchDto;
+import com.evheniy.testassignment.dto.UserTextSearchDto;
 import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.service.UserBulkService;
+import com.evheniy.testassignment.service.UserChangeService;
+import com.evheniy.testassignment.service.UserSearchVersion;
 import com.evheniy.testassignment.service.UserService;
+import com.evheniy.testassignment.service.UserWriteBehindService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/user")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
+    private static final byte[] NDJSON_DELIMITER = {'\n'};
+    private static final byte[] CBOR_SEQ_DELIMITER = {};
+
     private final UserService userService;
+    private final UserBulkService userBulkService;
+    private final UserChangeService userChangeService;
+    private final UserWriteBehindService userWriteBehindService;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UserResponseDto> getUser(@PathVariable Long id) {
+        UserResponseDto user = userService.getUser(id);
+        return ResponseEntity.ok().eTag(UserETags.forUser(user)).body(user);
+    }
+
+    @GetMapping("/by-email")
+    public ResponseEntity<UserResponseDto> getUserByEmail(@RequestParam String email) {
+        UserResponseDto user = userService.getUserByEmail(email);
+        return ResponseEntity.ok().eTag(UserETags.forUser(user)).body(user);
+    }
 
     @PostMapping
     public ResponseEntity<UserResponseDto> createUser(@Valid @RequestBody UserRequestDto userDto) {
@@ -26,30 +75,159 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(userResponseDto);
     }
 
+    @PostMapping(value = "/_bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResultDto> createUsers(InputStream body) throws IOException {
+        try (JsonRecordIterator<UserRequestDto> users =
+                     new JsonRecordIterator<>(objectMapper.readerFor(UserRequestDto.class).readValues(body))) {
+            return ResponseEntity.ok(userBulkService.createUsers(users));
+        }
+    }
+
+    @PatchMapping(value = "/_bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResultDto> updateUsers(InputStream body) throws IOException {
+        try (JsonRecordIterator<BulkUserUpdateDto> updates =
+                     new JsonRecordIterator<>(objectMapper.readerFor(BulkUserUpdateDto.class).readValues(body))) {
+            return ResponseEntity.ok(userBulkService.updateUsers(updates));
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<UserResponseDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequestDto userDto) {
-        UserResponseDto updatedUser = userService.updateUser(id, userDto);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<UserResponseDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequestDto userDto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserResponseDto updatedUser = userService.updateUser(id, userDto, UserETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(UserETags.forUser(updatedUser)).body(updatedUser);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<UserResponseDto> updateUserFields(@PathVariable Long id, @Valid @RequestBody UserUpdateFieldsDto userDto) {
-        UserResponseDto updatedUser = userService.updateUserFields(id, userDto);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<?> updateUserFields(@PathVariable Long id, @Valid @RequestBody UserUpdateFieldsDto userDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestHeader(value = UserPreferences.PREFER, required = false) List<String> prefer) {
+        // If-Match has to be checked against the stored version, so a conditional PATCH is always applied synchronously.
+        if (ifMatch == null && UserPreferences.contains(prefer, UserPreferences.RESPOND_ASYNC)) {
+            return updateUserFieldsAsync(id, userDto);
+        }
+        UserResponseDto updatedUser = userService.updateUserFields(id, userDto, UserETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(UserETags.forUser(updatedUser)).body(updatedUser);
+    }
+
+    private ResponseEntity<UserAsyncUpdateDto> updateUserFieldsAsync(Long id, UserUpdateFieldsDto userDto) {
+        UserAsyncUpdateDto accepted = userWriteBehindService.enqueue(id, userDto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/user/_async/" + accepted.getTrackingId()))
+                .header(UserPreferences.PREFERENCE_APPLIED, UserPreferences.RESPOND_ASYNC)
+                .body(accepted);
+    }
+
+    @GetMapping("/_async/{trackingId}")
+    public ResponseEntity<UserAsyncUpdateDto> getAsyncUpdate(@PathVariable String trackingId) {
+        return ResponseEntity.ok(userWriteBehindService.getStatus(trackingId));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> removeCar(@PathVariable Long id) {
-        userService.removeUser(id);
+    public ResponseEntity<String> removeCar(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.removeUser(id, UserETags.expectedVersion(ifMatch));
         return ResponseEntity.ok("User was deleted successfully");
     }
 
-    @PostMapping("/_search")
-    public ResponseEntity<List<UserResponseDto>> getUsersByBirthDateRange(@Valid @RequestBody UserDateRangeDto dateRangeDto) {
-        List<UserResponseDto> users = userService.findUsersByBirthDateRange(dateRangeDto);
-        return ResponseEntity.ok(users);
+    @PostMapping(value = "/_search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<UserResponseDto>> getUsersByBirthDateRange(@Valid @RequestBody UserSearchDto searchDto,
+                                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = null;
+        if (ifNoneMatch != null) {
+            eTag = searchETag(searchDto, userService.getSearchVersion(searchDto));
+            if (UserETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        List<UserResponseDto> users = userService.findUsers(searchDto);
+        if (eTag == null && !searchDto.hasCriteria()) {
+            // An unfiltered search returns the whole range, so its rows give the same version as the range fingerprint.
+            eTag = searchETag(searchDto, UserSearchVersion.of(users));
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(users);
     }
 
+    @PostMapping(value = "/_search", produces = {MediaType.APPLICATION_NDJSON_VALUE, BinaryFormatConfig.APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamUsersByBirthDateRange(@Valid @RequestBody UserSearchDto searchDto,
+                                                                             @RequestHeader(value = HttpHeaders.ACCEPT) String accept,
+                                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (MediaType.parseMediaTypes(accept).stream().anyMatch(BinaryFormatConfig.APPLICATION_CBOR_SEQ::equalsTypeAndSubtype)) {
+            return streamUsers(searchDto, ifNoneMatch, cborConverter.getObjectMapper().writerFor(UserResponseDto.class),
+                    BinaryFormatConfig.APPLICATION_CBOR_SEQ, CBOR_SEQ_DELIMITER);
+        }
+        return streamUsers(searchDto, ifNoneMatch, objectMapper.writerFor(UserResponseDto.class),
+                MediaType.APPLICATION_NDJSON, NDJSON_DELIMITER);
+    }
+
+    // Headers go out before the first streamed row, so the range is fingerprinted only for conditional requests.
+    private ResponseEntity<StreamingResponseBody> streamUsers(UserSearchDto searchDto, String ifNoneMatch,
+                                                              ObjectWriter writer, MediaType mediaType, byte[] delimiter) {
+        String eTag = null;
+        if (ifNoneMatch != null) {
+            eTag = searchETag(searchDto, userService.getSearchVersion(searchDto), mediaType.toString());
+            if (UserETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        StreamingResponseBody body = outputStream -> userService.streamUsers(searchDto, user -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(user));
+                outputStream.write(delimiter);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().eTag(eTag).contentType(mediaType).body(body);
+    }
+
+    private String searchETag(UserSearchDto searchDto, String searchVersion, String... variant) {
+        if (!searchDto.hasCriteria()) {
+            return UserETags.forSearch(searchVersion, variant);
+        }
+        List<String> parts = new ArrayList<>(Arrays.asList(variant));
+        try {
+            parts.add(objectMapper.writeValueAsString(
+                    List.of(searchDto.getFilters(), searchDto.getSort(), searchDto.getFields())));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize search criteria", e);
+        }
+        return UserETags.forSearch(searchVersion, parts.toArray(String[]::new));
+    }
+
+    @PostMapping("/_search/text")
+    public ResponseEntity<UserPageResponseDto> searchUsers(@Valid @RequestBody UserTextSearchDto searchDto,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.searchUsers(searchDto, cursor, size));
+    }
+
+    @PostMapping("/_search/aggregate")
+    public ResponseEntity<List<UserCountDto>> countUsersByBirthDateRange(@Valid @RequestBody UserDateRangeDto dateRangeDto,
+                                                                         @RequestParam(defaultValue = "AGE_BUCKET") UserAggregationGroup groupBy,
+                                                                         @RequestParam(required = false) Integer bucketSize) {
+        return ResponseEntity.ok(userService.countUsersByBirthDateRange(dateRangeDto, groupBy, bucketSize));
+    }
 
+    @PostMapping("/_search/page")
+    public ResponseEntity<UserPageResponseDto> getUsersPageByBirthDateRange(@Valid @RequestBody UserDateRangeDto dateRangeDto,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(required = false) Integer size,
+                                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // A page is a bounded keyset query, so its ETag comes from the fetched rows and a match only skips serialization.
+        UserPageResponseDto page = userService.findUsersPageByBirthDateRange(dateRangeDto, cursor, size);
+        String eTag = UserETags.forSearch(UserSearchVersion.of(page.getUsers()), page.getNextCursor());
+        if (UserETags.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(page);
+    }
+
+    @GetMapping("/_changes")
+    public ResponseEntity<UserChangesDto> getChanges(@RequestParam(required = false) String since,
+                                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userChangeService.findChanges(since, limit));
+    }
 
 }
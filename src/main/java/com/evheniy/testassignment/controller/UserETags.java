@@ -0,0 +1,77 @@
+package com.evheniy.testassignment.controller;
+
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.exception.UserVersionMismatchException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+final class UserETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK = "W/";
+
+    private UserETags() {
+    }
+
+    static String forUser(UserResponseDto user) {
+        return quote(String.valueOf(user.getVersion()));
+    }
+
+    // The variant (media type, criteria JSON) is digested, so different request shapes never share an ETag.
+    static String forSearch(String searchVersion, String... variant) {
+        if (variant.length == 0) {
+            return WEAK + quote(searchVersion);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : variant) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return WEAK + quote(searchVersion + "-" + HexFormat.of().formatHex(Arrays.copyOf(digest.digest(), 16)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"") || value.contains(",")) {
+            throw new UserVersionMismatchException("If-Match must be a single strong ETag, got: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new UserVersionMismatchException("If-Match does not match any user version: " + ifMatch);
+        }
+    }
+
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (ANY.equals(value) || opaqueTag.equals(opaqueTag(value))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String eTag) {
+        return eTag.startsWith(WEAK) ? eTag.substring(WEAK.length()) : eTag;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
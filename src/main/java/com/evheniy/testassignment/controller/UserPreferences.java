@@ -0,0 +1,40 @@
+package com.evheniy.testassignment.controller;
+
+import java.util.List;
+
+// Prefer (RFC 7240) is a comma-separated list of preferences, each optionally followed by "=value" and ";parameters".
+final class UserPreferences {
+
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+
+    private UserPreferences() {
+    }
+
+    static boolean contains(List<String> prefer, String preference) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String header : prefer) {
+            for (String candidate : header.split(",")) {
+                if (preference.equalsIgnoreCase(token(candidate))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String token(String candidate) {
+        int end = candidate.length();
+        for (int i = 0; i < candidate.length(); i++) {
+            char c = candidate.charAt(i);
+            if (c == '=' || c == ';') {
+                end = i;
+                break;
+            }
+        }
+        return candidate.substring(0, end).trim();
+    }
+}
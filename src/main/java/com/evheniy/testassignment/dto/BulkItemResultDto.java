@@ -0,0 +1,23 @@
+package com.evheniy.testassignment.dto;
+
+import lombok.Data;
+
+@Data
+public class BulkItemResultDto {
+
+    private int index;
+    private Long id;
+    private BulkItemStatus status;
+    private String message;
+
+    public BulkItemResultDto() {
+
+    }
+
+    public BulkItemResultDto(int index, Long id, BulkItemStatus status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+}
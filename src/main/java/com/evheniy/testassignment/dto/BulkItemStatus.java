@@ -0,0 +1,20 @@
+package com.evheniy.testassignment.dto;
+
+public enum BulkItemStatus {
+    CREATED(true),
+    UPDATED(true),
+    INVALID(false),
+    DUPLICATE(false),
+    CONFLICT(false),
+    NOT_FOUND(false);
+
+    private final boolean success;
+
+    BulkItemStatus(boolean success) {
+        this.success = success;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+}
@@ -0,0 +1,23 @@
+package com.evheniy.testassignment.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkResultDto {
+
+    private int succeeded;
+    private int failed;
+    private List<BulkItemResultDto> items = new ArrayList<>();
+
+    public void add(BulkItemResultDto item) {
+        items.add(item);
+        if (item.getStatus().isSuccess()) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.evheniy.testassignment.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class BulkUserUpdateDto {
+
+    @NotNull(message = "Id is required")
+    private Long id;
+
+    @Valid
+    @NotNull(message = "Fields are required")
+    private UserUpdateFieldsDto fields;
+
+    public BulkUserUpdateDto() {
+
+    }
+
+    public BulkUserUpdateDto(Long id, UserUpdateFieldsDto fields) {
+        this.id = id;
+        this.fields = fields;
+    }
+}
@@ -0,0 +1,7 @@
+package com.evheniy.testassignment.dto;
+
+public enum UserAggregationGroup {
+    AGE_BUCKET,
+    BIRTH_YEAR,
+    BIRTH_MONTH
+}
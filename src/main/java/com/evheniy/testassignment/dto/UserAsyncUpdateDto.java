@@ -0,0 +1,23 @@
+package com.evheniy.testassignment.dto;
+
+import lombok.Data;
+
+@Data
+public class UserAsyncUpdateDto {
+
+    private String trackingId;
+    private Long userId;
+    private UserAsyncUpdateStatus status;
+    private String message;
+
+    public UserAsyncUpdateDto() {
+
+    }
+
+    public UserAsyncUpdateDto(String trackingId, Long userId, UserAsyncUpdateStatus status, String message) {
+        this.trackingId = trackingId;
+        this.userId = userId;
+        this.status = status;
+        this.message = message;
+    }
+}
@@ -0,0 +1,10 @@
+package com.evheniy.testassignment.dto;
+
+public enum UserAsyncUpdateStatus {
+    QUEUED,
+    UPDATED,
+    INVALID,
+    DUPLICATE,
+    CONFLICT,
+    NOT_FOUND
+}
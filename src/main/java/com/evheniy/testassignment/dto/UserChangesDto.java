@@ -0,0 +1,21 @@
+package com.evheniy.testassignment.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserChangesDto {
+
+    private List<UserEventDto> events;
+    private String nextOffset;
+
+    public UserChangesDto() {
+
+    }
+
+    public UserChangesDto(List<UserEventDto> events, String nextOffset) {
+        this.events = events;
+        this.nextOffset = nextOffset;
+    }
+}
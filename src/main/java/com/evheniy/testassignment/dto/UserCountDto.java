@@ -0,0 +1,19 @@
+package com.evheniy.testassignment.dto;
+
+import lombok.Data;
+
+@Data
+public class UserCountDto {
+
+    private Integer bucket;
+    private Long count;
+
+    public UserCountDto() {
+
+    }
+
+    public UserCountDto(Integer bucket, Long count) {
+        this.bucket = bucket;
+        this.count = count;
+    }
+}
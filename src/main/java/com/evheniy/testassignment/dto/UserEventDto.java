@@ -0,0 +1,30 @@
+package com.evheniy.testassignment.dto;
+
+import com.evheniy.testassignment.model.UserEventType;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class UserEventDto {
+
+    private String offset;
+    private UserEventType type;
+    private Long userId;
+    @JsonRawValue
+    private String user;
+    private Instant createdAt;
+
+    public UserEventDto() {
+
+    }
+
+    public UserEventDto(String offset, UserEventType type, Long userId, String user, Instant createdAt) {
+        this.offset = offset;
+        this.type = type;
+        this.userId = userId;
+        this.user = user;
+        this.createdAt = createdAt;
+    }
+}
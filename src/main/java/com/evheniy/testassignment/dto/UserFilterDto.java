@@ -0,0 +1,26 @@
+package com.evheniy.testassignment.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class UserFilterDto {
+
+    @NotNull(message = "Filter field is required")
+    private UserSearchField field;
+
+    @NotNull(message = "Filter operator is required")
+    private UserFilterOperator operator;
+
+    private String value;
+
+    public UserFilterDto() {
+
+    }
+
+    public UserFilterDto(UserSearchField field, UserFilterOperator operator, String value) {
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+    }
+}
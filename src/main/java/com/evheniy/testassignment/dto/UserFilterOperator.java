@@ -0,0 +1,13 @@
+package com.evheniy.testassignment.dto;
+
+public enum UserFilterOperator {
+    EQ,
+    NE,
+    LT,
+    LTE,
+    GT,
+    GTE,
+    PREFIX,
+    IS_NULL,
+    IS_NOT_NULL
+}
@@ -0,0 +1,21 @@
+package com.evheniy.testassignment.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserPageResponseDto {
+
+    private List<UserResponseDto> users;
+    private String nextCursor;
+
+    public UserPageResponseDto() {
+
+    }
+
+    public UserPageResponseDto(List<UserResponseDto> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+}
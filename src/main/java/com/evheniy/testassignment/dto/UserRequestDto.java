@@ -30,4 +30,8 @@ public class UserRequestDto {
     private String address;
 
     private String phoneNumber;
+
+    public void setEmail(String email) {
+        this.email = EmailNormalizer.normalize(email);
+    }
 }
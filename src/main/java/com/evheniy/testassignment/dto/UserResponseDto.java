@@ -1,8 +1,16 @@
 package com.evheniy.testassignment.dto;
 
+import com.evheniy.testassignment.mapper.UserMapper;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserResponseDto {
 
     private Long id;
@@ -11,4 +19,19 @@ public class UserResponseDto {
     private String lastName;
     private String birthDate;
 
+    @JsonIgnore
+    private Long version;
+
+    public UserResponseDto(Long id, String email, String firstName, String lastName, LocalDate birthDate) {
+        this(id, email, firstName, lastName, birthDate, null);
+    }
+
+    public UserResponseDto(Long id, String email, String firstName, String lastName, LocalDate birthDate, Long version) {
+        this.id = id;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.birthDate = birthDate == null ? null : UserMapper.BIRTH_DATE_FORMATTER.format(birthDate);
+        this.version = version;
+    }
 }
@@ -0,0 +1,43 @@
+package com.evheniy.testassignment.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class UserSearchDto extends UserDateRangeDto {
+
+    @Valid
+    @Size(max = 20, message = "At most 20 filters are allowed")
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<@NotNull(message = "Filter must not be null") UserFilterDto> filters = new ArrayList<>();
+
+    @Valid
+    @Size(max = 5, message = "At most 5 sort fields are allowed")
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<@NotNull(message = "Sort field must not be null") UserSortDto> sort = new ArrayList<>();
+
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<@NotNull(message = "Selected field must not be null") UserSearchField> fields = new ArrayList<>();
+
+    public UserSearchDto() {
+
+    }
+
+    public UserSearchDto(LocalDate startDate, LocalDate endDate) {
+        super(startDate, endDate);
+    }
+
+    public boolean hasCriteria() {
+        return !filters.isEmpty() || !sort.isEmpty() || !fields.isEmpty();
+    }
+}
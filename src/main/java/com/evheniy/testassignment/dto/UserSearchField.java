@@ -0,0 +1,49 @@
+package com.evheniy.testassignment.dto;
+
+import java.time.LocalDate;
+
+public enum UserSearchField {
+    ID("id", Long.class, true),
+    EMAIL("email", String.class, true),
+    FIRST_NAME("firstName", String.class, true),
+    LAST_NAME("lastName", String.class, true),
+    BIRTH_DATE("birthDate", LocalDate.class, true),
+    ADDRESS("address", String.class, false),
+    PHONE_NUMBER("phoneNumber", String.class, false);
+
+    private final String attribute;
+    private final Class<?> type;
+    private final boolean projectable;
+
+    UserSearchField(String attribute, Class<?> type, boolean projectable) {
+        this.attribute = attribute;
+        this.type = type;
+        this.projectable = projectable;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean isProjectable() {
+        return projectable;
+    }
+
+    public Object parse(String value) {
+        if (this == EMAIL) {
+            // Stored emails are normalized on write, so filter values must be too
+            return EmailNormalizer.normalize(value);
+        }
+        if (type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,23 @@
+package com.evheniy.testassignment.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+@Data
+public class UserSortDto {
+
+    @NotNull(message = "Sort field is required")
+    private UserSearchField field;
+
+    private Sort.Direction direction = Sort.Direction.ASC;
+
+    public UserSortDto() {
+
+    }
+
+    public UserSortDto(UserSearchField field, Sort.Direction direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+}
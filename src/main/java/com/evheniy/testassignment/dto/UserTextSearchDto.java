@@ -0,0 +1,21 @@
+package com.evheniy.testassignment.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class UserTextSearchDto {
+
+    @NotBlank(message = "Query is required")
+    @Size(min = 2, max = 100, message = "Query must be between 2 and 100 characters")
+    private String query;
+
+    public UserTextSearchDto() {
+
+    }
+
+    public UserTextSearchDto(String query) {
+        this.query = query;
+    }
+}
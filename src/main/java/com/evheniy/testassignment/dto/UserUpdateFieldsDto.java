@@ -24,4 +24,8 @@ public class UserUpdateFieldsDto {
     private String address;
 
     private String phoneNumber;
+
+    public void setEmail(String email) {
+        this.email = EmailNormalizer.normalize(email);
+    }
 }
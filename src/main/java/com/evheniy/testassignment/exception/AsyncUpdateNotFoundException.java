@@ -0,0 +1,8 @@
+package com.evheniy.testassignment.exception;
+
+public class AsyncUpdateNotFoundException extends RuntimeException {
+
+    public AsyncUpdateNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,24 +1,34 @@
 package com.evheniy.testassignment.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<List<String>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
+        countError(ex);
         List<String> errors = ex.getBindingResult()
                 .getFieldErrors()
                 .stream()
@@ -28,27 +38,111 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<List<String>> handleWebExchangeBindException(WebExchangeBindException ex) {
+        countError(ex);
+        List<String> errors = ex.getFieldErrors()
+                .stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.toList());
+        LOGGER.error("Validation error: {}", errors);
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(EmailAlreadyExistsException.class)
     public ResponseEntity<String> handleEmailAlreadyExistsException(EmailAlreadyExistsException e) {
+        countError(e);
         LOGGER.error("Email already exists: {}", e.getMessage());
         return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
     }
 
     @ExceptionHandler(UserLowAgeException.class)
     public ResponseEntity<String> handleUserLowAgeException(UserLowAgeException e) {
+        countError(e);
         LOGGER.error("Age validation failed: {}", e.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
 
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException e) {
+        countError(e);
         LOGGER.error("User wasn't found with such ID: {}", e.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
 
+    @ExceptionHandler(UserVersionMismatchException.class)
+    public ResponseEntity<String> handleUserVersionMismatchException(UserVersionMismatchException e) {
+        countError(e);
+        LOGGER.error("Precondition failed: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
     @ExceptionHandler(InvalidDateRangeException.class)
     public ResponseEntity<String> handleInvalidDateRangeException(InvalidDateRangeException e) {
+        countError(e);
         LOGGER.error("Invalid date range: {}", e.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
+
+    @ExceptionHandler(InvalidSearchCursorException.class)
+    public ResponseEntity<String> handleInvalidSearchCursorException(InvalidSearchCursorException e) {
+        countError(e);
+        LOGGER.error("Invalid search cursor: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidSearchFilterException.class)
+    public ResponseEntity<String> handleInvalidSearchFilterException(InvalidSearchFilterException e) {
+        countError(e);
+        LOGGER.error("Invalid search filter: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidChangeOffsetException.class)
+    public ResponseEntity<String> handleInvalidChangeOffsetException(InvalidChangeOffsetException e) {
+        countError(e);
+        LOGGER.error("Invalid change offset: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(MalformedBulkPayloadException.class)
+    public ResponseEntity<String> handleMalformedBulkPayloadException(MalformedBulkPayloadException e) {
+        countError(e);
+        LOGGER.error("Malformed bulk payload: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(AsyncUpdateNotFoundException.class)
+    public ResponseEntity<String> handleAsyncUpdateNotFoundException(AsyncUpdateNotFoundException e) {
+        countError(e);
+        LOGGER.error("Async update wasn't found: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(WriteBehindQueueFullException.class)
+    public ResponseEntity<String> handleWriteBehindQueueFullException(WriteBehindQueueFullException e) {
+        countError(e);
+        LOGGER.error("Write-behind queue is full: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolationException(DataIntegrityViolationException e) {
+        countError(e);
+        LOGGER.error("Data integrity violation: {}", e.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Request conflicts with existing data");
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        countError(e);
+        LOGGER.error("Concurrent modification: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("User was modified concurrently, please retry");
+    }
+
+    private void countError(Exception e) {
+        meterRegistry.counter("user.api.errors", "exception", e.getClass().getSimpleName()).increment();
+    }
 }
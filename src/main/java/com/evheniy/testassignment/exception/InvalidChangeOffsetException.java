@@ -0,0 +1,8 @@
+package com.evheniy.testassignment.exception;
+
+public class InvalidChangeOffsetException extends RuntimeException {
+
+    public InvalidChangeOffsetException(String message) {
+        super(message);
+    }
+}
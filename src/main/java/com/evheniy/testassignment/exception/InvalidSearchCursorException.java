@@ -0,0 +1,8 @@
+package com.evheniy.testassignment.exception;
+
+public class InvalidSearchCursorException extends RuntimeException {
+
+    public InvalidSearchCursorException(String message) {
+        super(message);
+    }
+}
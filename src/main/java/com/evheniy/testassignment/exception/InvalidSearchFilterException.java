@@ -0,0 +1,8 @@
+package com.evheniy.testassignment.exception;
+
+public class InvalidSearchFilterException extends RuntimeException {
+
+    public InvalidSearchFilterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.evheniy.testassignment.exception;
+
+public class WriteBehindQueueFullException extends RuntimeException {
+
+    public WriteBehindQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,46 @@
+package com.evheniy.testassignment.mapper;
+
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.model.User;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface UserMapper {
+
+    DateTimeFormatter BIRTH_DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    User toEntity(UserRequestDto userDto);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void updateEntity(UserRequestDto userDto, @MappingTarget User user);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void updateEntityFields(UserUpdateFieldsDto userDto, @MappingTarget User user);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void mergeUpdateFields(UserUpdateFieldsDto later, @MappingTarget UserUpdateFieldsDto merged);
+
+    UserRequestDto toRequestDto(User user);
+
+    UserResponseDto toResponseDto(User user);
+
+    default String formatBirthDate(LocalDate birthDate) {
+        return birthDate == null ? null : BIRTH_DATE_FORMATTER.format(birthDate);
+    }
+}
@@ -0,0 +1,24 @@
+package com.evheniy.testassignment.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> QUERY_COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        QUERY_COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void start() {
+        QUERY_COUNT.get()[0] = 0;
+    }
+
+    public static int finish() {
+        int count = QUERY_COUNT.get()[0];
+        QUERY_COUNT.remove();
+        return count;
+    }
+}
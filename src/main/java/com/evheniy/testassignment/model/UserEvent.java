@@ -0,0 +1,39 @@
+package com.evheniy.testassignment.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "user_events")
+public class UserEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_events_id_seq")
+    @SequenceGenerator(name = "user_events_id_seq", sequenceName = "user_events_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(insertable = false, updatable = false)
+    private Long txId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UserEventType type;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column
+    private String payload;
+
+    @Column(insertable = false, updatable = false)
+    private Instant createdAt;
+
+}
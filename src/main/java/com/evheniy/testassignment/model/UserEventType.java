@@ -0,0 +1,7 @@
+package com.evheniy.testassignment.model;
+
+public enum UserEventType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
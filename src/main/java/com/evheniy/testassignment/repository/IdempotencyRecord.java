@@ -0,0 +1,16 @@
+package com.evheniy.testassignment.repository;
+
+import java.util.Map;
+
+public record IdempotencyRecord(byte[] requestHash, int status, Map<String, String> headers, byte[] body) {
+
+    public static final int IN_FLIGHT = 0;
+
+    public static IdempotencyRecord inFlight(byte[] requestHash) {
+        return new IdempotencyRecord(requestHash, IN_FLIGHT, Map.of(), new byte[0]);
+    }
+
+    public boolean isInFlight() {
+        return status == IN_FLIGHT;
+    }
+}
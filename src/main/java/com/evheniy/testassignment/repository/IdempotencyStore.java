@@ -0,0 +1,11 @@
+package com.evheniy.testassignment.repository;
+
+public interface IdempotencyStore {
+
+    // Returns null when the key was free and is now reserved for the caller, otherwise the record already held for it.
+    IdempotencyRecord reserve(String key, byte[] requestHash);
+
+    void complete(String key, IdempotencyRecord record);
+
+    void release(String key);
+}
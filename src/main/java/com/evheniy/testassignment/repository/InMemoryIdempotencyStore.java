@@ -0,0 +1,66 @@
+package com.evheniy.testassignment.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    // Rough per-entry cost of the map node, record and arrays besides their contents.
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Cache<String, IdempotencyRecord> records;
+
+    // Stored responses can be up to max-response-bytes each, so the cache is bounded by their size, not their count.
+    // A reservation left by a request that never finished expires after the shorter in-flight TTL.
+    public InMemoryIdempotencyStore(long maxBytes, long ttlMillis, long inFlightTtlMillis) {
+        long ttlNanos = Duration.ofMillis(ttlMillis).toNanos();
+        long inFlightTtlNanos = Duration.ofMillis(inFlightTtlMillis).toNanos();
+        this.records = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(InMemoryIdempotencyStore::weigh)
+                .expireAfter(new Expiry<String, IdempotencyRecord>() {
+                    @Override
+                    public long expireAfterCreate(String key, IdempotencyRecord record, long currentTime) {
+                        return record.isInFlight() ? inFlightTtlNanos : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, IdempotencyRecord record, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, record, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, IdempotencyRecord record, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public IdempotencyRecord reserve(String key, byte[] requestHash) {
+        return records.asMap().putIfAbsent(key, IdempotencyRecord.inFlight(requestHash));
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        records.put(key, record);
+    }
+
+    @Override
+    public void release(String key) {
+        records.asMap().computeIfPresent(key, (k, record) -> record.isInFlight() ? null : record);
+    }
+
+    private static int weigh(String key, IdempotencyRecord record) {
+        int headers = record.headers().entrySet().stream()
+                .mapToInt(header -> header.getKey().length() + header.getValue().length())
+                .sum();
+        return ENTRY_OVERHEAD_BYTES + 2 * (key.length() + headers) + record.requestHash().length + record.body().length;
+    }
+}
@@ -0,0 +1,98 @@
+package com.evheniy.testassignment.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcIdempotencyStore.class);
+
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() {
+    };
+
+    // Takes over a key only when its previous record, finished or abandoned in flight, has expired.
+    private static final String RESERVE = "insert into idempotency_keys (idempotency_key, request_hash, status, expires_at) " +
+            "values (?, ?, 0, now() + cast(? as bigint) * interval '1 millisecond') " +
+            "on conflict (idempotency_key) do update set request_hash = excluded.request_hash, status = 0, " +
+            "headers = null, body = null, expires_at = excluded.expires_at " +
+            "where idempotency_keys.expires_at < now()";
+
+    private static final String FIND = "select request_hash, status, headers, body from idempotency_keys " +
+            "where idempotency_key = ? and expires_at >= now()";
+
+    private static final String COMPLETE = "update idempotency_keys set status = ?, headers = ?, body = ?, " +
+            "expires_at = now() + cast(? as bigint) * interval '1 millisecond' where idempotency_key = ?";
+
+    private static final String RELEASE = "delete from idempotency_keys where idempotency_key = ? and status = 0";
+
+    private static final String PURGE = "delete from idempotency_keys where expires_at < now()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+    private final long inFlightTtlMillis;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, long ttlMillis, long inFlightTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttlMillis;
+        this.inFlightTtlMillis = inFlightTtlMillis;
+    }
+
+    @Override
+    public IdempotencyRecord reserve(String key, byte[] requestHash) {
+        while (true) {
+            if (jdbcTemplate.update(RESERVE, key, requestHash, inFlightTtlMillis) == 1) {
+                return null;
+            }
+            List<IdempotencyRecord> records = jdbcTemplate.query(FIND, this::mapRecord, key);
+            if (!records.isEmpty()) {
+                return records.get(0);
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        try {
+            jdbcTemplate.update(COMPLETE, record.status(), objectMapper.writeValueAsString(record.headers()),
+                    record.body(), ttlMillis, key);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response headers", e);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update(RELEASE, key);
+    }
+
+    @Scheduled(fixedDelayString = "${user.idempotency.purge-interval-ms}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update(PURGE);
+        if (purged > 0) {
+            LOGGER.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private IdempotencyRecord mapRecord(ResultSet rs, int rowNum) throws SQLException {
+        String headers = rs.getString("headers");
+        try {
+            return new IdempotencyRecord(rs.getBytes("request_hash"), rs.getInt("status"),
+                    headers == null ? Map.of() : objectMapper.readValue(headers, HEADERS_TYPE),
+                    rs.getBytes("body"));
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Stored response headers are not readable", e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.evheniy.testassignment.repository;
+
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.model.UserEventType;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+
+    private static final int SEARCH_FETCH_SIZE = Integer.parseInt(UserRepository.SEARCH_FETCH_SIZE);
+
+    private static final String USER_COLUMNS = "id, email, first_name, last_name, birth_date";
+
+    private static final String USER_PAYLOAD = "jsonb_build_object('id', id, 'email', email, 'firstName', first_name, " +
+            "'lastName', last_name, 'birthDate', birth_date)";
+
+    private static final List<String> UPDATABLE_COLUMNS = List.of("email", "first_name", "last_name", "birth_date",
+            "address", "phone_number");
+
+    private static final List<String> UPDATE_VALUES = List.of(":email", ":firstName", ":lastName", ":birthDate",
+            ":address", ":phoneNumber");
+
+    private static final List<String> PATCH_VALUES = List.of("coalesce(:email, email)", "coalesce(:firstName, first_name)",
+            "coalesce(:lastName, last_name)", "coalesce(:birthDate, birth_date)", "coalesce(:address, address)",
+            "coalesce(:phoneNumber, phone_number)");
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<UserResponseDto> findById(Long id) {
+        return databaseClient.sql("select " + USER_COLUMNS + " from users where id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toResponseDto)
+                .one();
+    }
+
+    public Mono<UserResponseDto> insert(UserRequestDto userDto) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(withEvent(
+                "insert into users (id, email, first_name, last_name, birth_date, address, phone_number) " +
+                        "values (nextval('users_id_seq'), :email, :firstName, :lastName, :birthDate, :address, :phoneNumber)",
+                UserEventType.CREATED, USER_PAYLOAD) +
+                "select " + USER_COLUMNS + " from changed");
+        return bindUser(spec, userDto.getEmail(), userDto.getFirstName(), userDto.getLastName(),
+                userDto.getBirthDate(), userDto.getAddress(), userDto.getPhoneNumber())
+                .map(ReactiveUserRepository::toResponseDto)
+                .one();
+    }
+
+    public Mono<UserResponseDto> update(Long id, UserRequestDto userDto) {
+        return updateIfChanged(id, UPDATE_VALUES, userDto.getEmail(), userDto.getFirstName(), userDto.getLastName(),
+                userDto.getBirthDate(), userDto.getAddress(), userDto.getPhoneNumber());
+    }
+
+    public Mono<UserResponseDto> updateFields(Long id, UserUpdateFieldsDto userDto) {
+        return updateIfChanged(id, PATCH_VALUES, userDto.getEmail(), userDto.getFirstName(), userDto.getLastName(),
+                userDto.getBirthDate(), userDto.getAddress(), userDto.getPhoneNumber());
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql(withEvent("delete from users where id = :id", UserEventType.DELETED, "null") +
+                        "select count(*) as deleted from changed")
+                .bind("id", id)
+                .map(row -> row.get("deleted", Long.class))
+                .one();
+    }
+
+    // Like the JPA path, a write that changes nothing keeps its version and records no event; the unchanged row is
+    // read from the same statement snapshot so the caller still gets the user back.
+    private Mono<UserResponseDto> updateIfChanged(Long id, List<String> values, String email, String firstName,
+                                                  String lastName, LocalDate birthDate, String address, String phoneNumber) {
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < UPDATABLE_COLUMNS.size(); i++) {
+            assignments.append(UPDATABLE_COLUMNS.get(i)).append(" = ").append(values.get(i)).append(", ");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(withEvent(
+                "update users set " + assignments + "version = version + 1 where id = :id " +
+                        "and (" + String.join(", ", UPDATABLE_COLUMNS) + ") is distinct from (" + String.join(", ", values) + ")",
+                UserEventType.UPDATED, USER_PAYLOAD) +
+                "select " + USER_COLUMNS + " from changed " +
+                "union all select " + USER_COLUMNS + " from users where id = :id and not exists (select 1 from changed)");
+        return bindUser(spec.bind("id", id), email, firstName, lastName, birthDate, address, phoneNumber)
+                .map(ReactiveUserRepository::toResponseDto)
+                .one();
+    }
+
+    // The user_events row is written by the same statement as the change, so /_changes sees reactive writes
+    // exactly when they commit, as it does for the transactional JPA path.
+    private static String withEvent(String write, UserEventType type, String payload) {
+        return "with changed as (" + write + " returning " + USER_COLUMNS + "), " +
+                "event as (insert into user_events (id, type, user_id, payload) " +
+                "select nextval('user_events_id_seq'), '" + type.name() + "', id, " + payload + " from changed) ";
+    }
+
+    public Flux<UserResponseDto> findByBirthDateBetween(LocalDate start, LocalDate end) {
+        return databaseClient.sql("select id, email, first_name, last_name, birth_date from users " +
+                        "where birth_date between :start and :end order by birth_date, id")
+                .bind("start", start)
+                .bind("end", end)
+                .filter(statement -> statement.fetchSize(SEARCH_FETCH_SIZE))
+                .map(ReactiveUserRepository::toResponseDto)
+                .all();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindUser(DatabaseClient.GenericExecuteSpec spec,
+                                                              String email, String firstName, String lastName,
+                                                              LocalDate birthDate, String address, String phoneNumber) {
+        spec = bindNullable(spec, "email", email, String.class);
+        spec = bindNullable(spec, "firstName", firstName, String.class);
+        spec = bindNullable(spec, "lastName", lastName, String.class);
+        spec = bindNullable(spec, "birthDate", birthDate, LocalDate.class);
+        spec = bindNullable(spec, "address", address, String.class);
+        return bindNullable(spec, "phoneNumber", phoneNumber, String.class);
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                      String name, T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static UserResponseDto toResponseDto(Readable row) {
+        return new UserResponseDto(
+                row.get("id", Long.class),
+                row.get("email", String.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("birth_date", LocalDate.class));
+    }
+}
@@ -0,0 +1,8 @@
+package com.evheniy.testassignment.repository;
+
+public interface UserBucketCount {
+
+    Integer getBucket();
+
+    Long getUsers();
+}
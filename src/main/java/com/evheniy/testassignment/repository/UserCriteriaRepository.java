@@ -0,0 +1,14 @@
+package com.evheniy.testassignment.repository;
+
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserSearchDto;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserCriteriaRepository {
+
+    List<UserResponseDto> findResponses(UserSearchDto searchDto);
+
+    Stream<UserResponseDto> streamResponses(UserSearchDto searchDto);
+}
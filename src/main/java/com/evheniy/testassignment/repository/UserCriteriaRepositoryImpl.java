@@ -0,0 +1,164 @@
+package com.evheniy.testassignment.repository;
+
+import com.evheniy.testassignment.dto.UserFilterDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserSearchDto;
+import com.evheniy.testassignment.dto.UserSearchField;
+import com.evheniy.testassignment.dto.UserSortDto;
+import com.evheniy.testassignment.mapper.UserMapper;
+import com.evheniy.testassignment.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_FLUSH_MODE;
+
+public class UserCriteriaRepositoryImpl implements UserCriteriaRepository {
+
+    private static final List<UserSearchField> DEFAULT_FIELDS = List.of(UserSearchField.ID, UserSearchField.EMAIL,
+            UserSearchField.FIRST_NAME, UserSearchField.LAST_NAME, UserSearchField.BIRTH_DATE);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserResponseDto> findResponses(UserSearchDto searchDto) {
+        List<UserSearchField> fields = selectedFields(searchDto);
+        return createQuery(searchDto, fields).getResultList().stream()
+                .map(tuple -> toResponseDto(tuple, fields))
+                .toList();
+    }
+
+    @Override
+    public Stream<UserResponseDto> streamResponses(UserSearchDto searchDto) {
+        List<UserSearchField> fields = selectedFields(searchDto);
+        return createQuery(searchDto, fields)
+                .setHint(HINT_FETCH_SIZE, UserRepository.SEARCH_FETCH_SIZE)
+                .getResultStream()
+                .map(tuple -> toResponseDto(tuple, fields));
+    }
+
+    // Every value is bound as a parameter, so one filter shape always renders the same SQL and
+    // the driver reuses its server-side prepared statement and plan for it.
+    private TypedQuery<Tuple> createQuery(UserSearchDto searchDto, List<UserSearchField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        Map<Parameter<?>, Object> bindings = new LinkedHashMap<>();
+
+        query.multiselect(fields.stream()
+                .<Selection<?>>map(field -> user.get(field.getAttribute()).alias(field.name()))
+                .toList());
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.between(user.get("birthDate"),
+                bind(cb, bindings, LocalDate.class, searchDto.getStartDate()),
+                bind(cb, bindings, LocalDate.class, searchDto.getEndDate())));
+        for (UserFilterDto filter : searchDto.getFilters()) {
+            predicates.add(toPredicate(cb, user, filter, bindings));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(toOrders(cb, user, searchDto.getSort()));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query)
+                .setHint(HINT_FLUSH_MODE, "MANUAL");
+        bindings.forEach((parameter, value) -> setParameter(typedQuery, parameter, value));
+        return typedQuery;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate toPredicate(CriteriaBuilder cb, Root<User> user, UserFilterDto filter,
+                                  Map<Parameter<?>, Object> bindings) {
+        UserSearchField field = filter.getField();
+        Expression path = user.get(field.getAttribute());
+        return switch (filter.getOperator()) {
+            case IS_NULL -> cb.isNull(path);
+            case IS_NOT_NULL -> cb.isNotNull(path);
+            case PREFIX -> cb.like(cb.lower(path),
+                    bind(cb, bindings, String.class, escapeLike(filter.getValue().toLowerCase(Locale.ROOT)) + "%"), '\\');
+            case EQ -> cb.equal(path, bind(cb, bindings, filter));
+            case NE -> cb.notEqual(path, bind(cb, bindings, filter));
+            case LT -> cb.lessThan(path, bind(cb, bindings, filter));
+            case LTE -> cb.lessThanOrEqualTo(path, bind(cb, bindings, filter));
+            case GT -> cb.greaterThan(path, bind(cb, bindings, filter));
+            case GTE -> cb.greaterThanOrEqualTo(path, bind(cb, bindings, filter));
+        };
+    }
+
+    private List<Order> toOrders(CriteriaBuilder cb, Root<User> user, List<UserSortDto> sort) {
+        if (sort.isEmpty()) {
+            return List.of(cb.asc(user.get("birthDate")), cb.asc(user.get("id")));
+        }
+        List<Order> orders = new ArrayList<>();
+        for (UserSortDto sortDto : sort) {
+            Expression<?> path = user.get(sortDto.getField().getAttribute());
+            orders.add(sortDto.getDirection() == Sort.Direction.DESC ? cb.desc(path) : cb.asc(path));
+        }
+        if (sort.stream().noneMatch(sortDto -> sortDto.getField() == UserSearchField.ID)) {
+            orders.add(cb.asc(user.get("id")));
+        }
+        return orders;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ParameterExpression bind(CriteriaBuilder cb, Map<Parameter<?>, Object> bindings, UserFilterDto filter) {
+        UserSearchField field = filter.getField();
+        return bind(cb, bindings, (Class) field.getType(), field.parse(filter.getValue()));
+    }
+
+    private <T> ParameterExpression<T> bind(CriteriaBuilder cb, Map<Parameter<?>, Object> bindings,
+                                            Class<T> type, Object value) {
+        ParameterExpression<T> parameter = cb.parameter(type);
+        bindings.put(parameter, value);
+        return parameter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void setParameter(TypedQuery<Tuple> query, Parameter<T> parameter, Object value) {
+        query.setParameter(parameter, (T) value);
+    }
+
+    private static List<UserSearchField> selectedFields(UserSearchDto searchDto) {
+        return searchDto.getFields().isEmpty() ? DEFAULT_FIELDS : searchDto.getFields().stream().distinct().toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static UserResponseDto toResponseDto(Tuple tuple, List<UserSearchField> fields) {
+        UserResponseDto dto = new UserResponseDto();
+        for (UserSearchField field : fields) {
+            Object value = tuple.get(field.name());
+            switch (field) {
+                case ID -> dto.setId((Long) value);
+                case EMAIL -> dto.setEmail((String) value);
+                case FIRST_NAME -> dto.setFirstName((String) value);
+                case LAST_NAME -> dto.setLastName((String) value);
+                case BIRTH_DATE -> dto.setBirthDate(UserMapper.BIRTH_DATE_FORMATTER.format((LocalDate) value));
+                default -> throw new IllegalArgumentException(field + " cannot be selected");
+            }
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,17 @@
+package com.evheniy.testassignment.repository;
+
+import com.evheniy.testassignment.model.UserEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface UserEventRepository extends JpaRepository<UserEvent, Long> {
+
+    @Query(value = "select * from user_events e " +
+            "where (e.tx_id, e.id) > (:txId, :id) " +
+            "and e.tx_id < cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint) " +
+            "order by e.tx_id, e.id limit :limit", nativeQuery = true)
+    List<UserEvent> findCommittedAfter(@Param("txId") long txId, @Param("id") long id, @Param("limit") int limit);
+}
@@ -0,0 +1,10 @@
+package com.evheniy.testassignment.repository;
+
+public interface UserRangeFingerprint {
+
+    Long getCount();
+
+    Long getMaxVersion();
+
+    Long getHash();
+}
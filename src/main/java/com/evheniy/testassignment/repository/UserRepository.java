@@ -1,13 +1,84 @@
 package com.evheniy.testassignment.repository;
 
+import com.evheniy.testassignment.dto.UserResponseDto;
 import com.evheniy.testassignment.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsByEmail(String email);
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_FLUSH_MODE;
 
-    List<User> findByBirthDateBetween(LocalDate start, LocalDate end);
+public interface UserRepository extends JpaRepository<User, Long>, UserTextSearchRepository,
+        UserCriteriaRepository {
+
+    String SEARCH_FETCH_SIZE = "500";
+
+    String SELECT_USER_RESPONSE = "select new com.evheniy.testassignment.dto.UserResponseDto(" +
+            "u.id, u.email, u.firstName, u.lastName, u.birthDate, u.version) from User u ";
+
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(SELECT_USER_RESPONSE + "where lower(u.email) = :email")
+    Optional<UserResponseDto> findResponseByEmail(@Param("email") String email);
+
+    // Reads only id and version, which idx_users_birth_date_id covers, so the range is fingerprinted by an index-only scan.
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(value = "select count(*) as count, coalesce(max(u.version), 0) as maxVersion, " +
+            "coalesce(bit_xor(cast(cast('x' || left(md5(u.id || ':' || u.version), 16) as bit(64)) as bigint)), 0) as hash " +
+            "from users u where u.birth_date between :start and :end", nativeQuery = true)
+    UserRangeFingerprint findRangeFingerprint(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query(value = "select cast(case :groupBy " +
+            "when 'BIRTH_YEAR' then extract(year from c.birth_date) " +
+            "when 'BIRTH_MONTH' then extract(month from c.birth_date) " +
+            "else floor(extract(year from age(current_date, c.birth_date)) / :bucketSize) * :bucketSize " +
+            "end as integer) as bucket, sum(c.user_count) as users " +
+            "from user_birth_date_counts c where c.birth_date between :start and :end " +
+            "group by 1 having sum(c.user_count) > 0 order by 1", nativeQuery = true)
+    List<UserBucketCount> countByBirthDateBetween(@Param("start") LocalDate start,
+                                                  @Param("end") LocalDate end,
+                                                  @Param("groupBy") String groupBy,
+                                                  @Param("bucketSize") int bucketSize);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = SEARCH_FETCH_SIZE),
+            @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query(SELECT_USER_RESPONSE + "where u.birthDate between :start and :end order by u.birthDate, u.id")
+    List<UserResponseDto> findResponsesByBirthDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(SELECT_USER_RESPONSE + "where u.birthDate between :start and :end order by u.birthDate, u.id")
+    List<UserResponseDto> findResponsePage(@Param("start") LocalDate start, @Param("end") LocalDate end, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(SELECT_USER_RESPONSE +
+            "where u.birthDate between :start and :end " +
+            "and (u.birthDate > :afterBirthDate or (u.birthDate = :afterBirthDate and u.id > :afterId)) " +
+            "order by u.birthDate, u.id")
+    List<UserResponseDto> findResponsePageAfter(@Param("start") LocalDate start,
+                                                @Param("end") LocalDate end,
+                                                @Param("afterBirthDate") LocalDate afterBirthDate,
+                                                @Param("afterId") Long afterId,
+                                                Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = SEARCH_FETCH_SIZE),
+            @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query(SELECT_USER_RESPONSE + "where u.birthDate between :start and :end order by u.birthDate, u.id")
+    Stream<UserResponseDto> streamResponsesByBirthDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
 }
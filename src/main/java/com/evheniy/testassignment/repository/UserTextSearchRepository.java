@@ -0,0 +1,10 @@
+package com.evheniy.testassignment.repository;
+
+import com.evheniy.testassignment.model.User;
+
+import java.util.List;
+
+public interface UserTextSearchRepository {
+
+    List<User> searchByText(String query, String prefix, int limit, int offset);
+}
@@ -0,0 +1,37 @@
+package com.evheniy.testassignment.repository;
+
+import com.evheniy.testassignment.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.FlushMode;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+
+public class UserTextSearchRepositoryImpl implements UserTextSearchRepository {
+
+    // Must match the expression of idx_users_search_trgm for the planner to use the index.
+    private static final String SEARCH_TEXT = "lower(u.first_name || ' ' || u.last_name || ' ' || u.email)";
+
+    // Kept out of @Query: the JSqlParser used by Spring Data cannot parse the pg_trgm <% operator.
+    private static final String SEARCH_BY_TEXT = "select u.* from users u where :query <% " + SEARCH_TEXT + " " +
+            "order by (u.first_name ilike :prefix or u.last_name ilike :prefix or u.email like :prefix) desc, " +
+            "word_similarity(:query, " + SEARCH_TEXT + ") desc, u.id " +
+            "limit :limit offset :offset";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<User> searchByText(String query, String prefix, int limit, int offset) {
+        return entityManager.createNativeQuery(SEARCH_BY_TEXT, User.class)
+                .unwrap(NativeQuery.class)
+                .setHibernateFlushMode(FlushMode.MANUAL)
+                .setParameter("query", query)
+                .setParameter("prefix", prefix)
+                .setParameter("limit", limit)
+                .setParameter("offset", offset)
+                .getResultList();
+    }
+}
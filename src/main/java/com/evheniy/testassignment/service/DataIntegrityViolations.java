@@ -0,0 +1,44 @@
+package com.evheniy.testassignment.service;
+
+import io.r2dbc.spi.R2dbcException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class DataIntegrityViolations {
+
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+    // idx_users_email_lower guards the plain table, user_emails_pkey the partitioned one (migrations 007 and 009).
+    private static final Set<String> EMAIL_CONSTRAINTS = Set.of("idx_users_email_lower", "user_emails_pkey");
+    private static final Pattern CONSTRAINT_NAME = Pattern.compile("unique constraint \"([^\"]+)\"");
+
+    private DataIntegrityViolations() {
+    }
+
+    // Only a violation of an email constraint means a duplicate email; any other unique key is a different failure.
+    static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return EMAIL_CONSTRAINTS.contains(violation.getConstraintName());
+            }
+            if (cause instanceof SQLException sqlException
+                    && UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())) {
+                return isEmailConstraint(sqlException.getMessage());
+            }
+            if (cause instanceof R2dbcException r2dbcException
+                    && UNIQUE_VIOLATION_SQL_STATE.equals(r2dbcException.getSqlState())) {
+                return isEmailConstraint(r2dbcException.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEmailConstraint(String message) {
+        Matcher matcher = CONSTRAINT_NAME.matcher(message == null ? "" : message);
+        return matcher.find() && EMAIL_CONSTRAINTS.contains(matcher.group(1));
+    }
+}
@@ -0,0 +1,23 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+
+    Mono<UserResponseDto> getUser(Long id);
+
+    Mono<UserResponseDto> createUser(UserRequestDto userDto);
+
+    Mono<UserResponseDto> updateUser(Long id, UserRequestDto userDto);
+
+    Mono<UserResponseDto> updateUserFields(Long id, UserUpdateFieldsDto userDto);
+
+    Mono<Void> removeUser(Long id);
+
+    Flux<UserResponseDto> findUsersByBirthDateRange(UserDateRangeDto dateRangeDto);
+}
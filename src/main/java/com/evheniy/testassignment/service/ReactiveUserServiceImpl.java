@@ -0,0 +1,82 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.exception.EmailAlreadyExistsException;
+import com.evheniy.testassignment.exception.InvalidDateRangeException;
+import com.evheniy.testassignment.exception.UserLowAgeException;
+import com.evheniy.testassignment.exception.UserNotFoundException;
+import com.evheniy.testassignment.repository.ReactiveUserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+
+    @Value("${user.min-age}")
+    private int minAge;
+
+    @Override
+    public Mono<UserResponseDto> getUser(Long id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> userNotFound(id)));
+    }
+
+    @Override
+    public Mono<UserResponseDto> createUser(UserRequestDto userDto) {
+        if (Period.between(userDto.getBirthDate(), LocalDate.now()).getYears() < minAge) {
+            return Mono.error(new UserLowAgeException("User must be at least " + minAge + " years old."));
+        }
+        return withUniqueEmail(userRepository.insert(userDto), userDto.getEmail());
+    }
+
+    @Override
+    public Mono<UserResponseDto> updateUser(Long id, UserRequestDto userDto) {
+        return withUniqueEmail(userRepository.update(id, userDto), userDto.getEmail())
+                .switchIfEmpty(Mono.error(() -> userNotFound(id)));
+    }
+
+    @Override
+    public Mono<UserResponseDto> updateUserFields(Long id, UserUpdateFieldsDto userDto) {
+        return withUniqueEmail(userRepository.updateFields(id, userDto), userDto.getEmail())
+                .switchIfEmpty(Mono.error(() -> userNotFound(id)));
+    }
+
+    @Override
+    public Mono<Void> removeUser(Long id) {
+        return userRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.error(userNotFound(id)) : Mono.empty());
+    }
+
+    @Override
+    public Flux<UserResponseDto> findUsersByBirthDateRange(UserDateRangeDto dateRangeDto) {
+        if (dateRangeDto.getStartDate().isAfter(dateRangeDto.getEndDate())) {
+            return Flux.error(new InvalidDateRangeException("Start date must be before end date"));
+        }
+        return userRepository.findByBirthDateBetween(dateRangeDto.getStartDate(), dateRangeDto.getEndDate());
+    }
+
+    private Mono<UserResponseDto> withUniqueEmail(Mono<UserResponseDto> save, String email) {
+        return save.onErrorMap(
+                e -> e instanceof DataIntegrityViolationException violation && DataIntegrityViolations.isDuplicateEmail(violation),
+                e -> new EmailAlreadyExistsException("This email already exists: " + email));
+    }
+
+    private UserNotFoundException userNotFound(Long id) {
+        return new UserNotFoundException("User with ID: " + id + " was not found");
+    }
+}
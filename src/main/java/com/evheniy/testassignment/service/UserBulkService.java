@@ -0,0 +1,14 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.dto.BulkResultDto;
+import com.evheniy.testassignment.dto.BulkUserUpdateDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+
+import java.util.Iterator;
+
+public interface UserBulkService {
+
+    BulkResultDto createUsers(Iterator<UserRequestDto> users);
+
+    BulkResultDto updateUsers(Iterator<BulkUserUpdateDto> updates);
+}
@@ -0,0 +1,301 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.config.CacheConfig;
+import com.evheniy.testassignment.dto.BulkItemResultDto;
+import com.evheniy.testassignment.dto.BulkItemStatus;
+import com.evheniy.testassignment.dto.BulkResultDto;
+import com.evheniy.testassignment.dto.BulkUserUpdateDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.mapper.UserMapper;
+import com.evheniy.testassignment.model.User;
+import com.evheniy.testassignment.model.UserEventType;
+import com.evheniy.testassignment.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class UserBulkServiceImpl implements UserBulkService {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final UserChangeService userChangeService;
+
+    @Value("${user.min-age}")
+    private int minAge;
+
+    @Value("${user.bulk.chunk-size}")
+    private int chunkSize;
+
+    @Override
+    public BulkResultDto createUsers(Iterator<UserRequestDto> users) {
+        BulkResultDto result = new BulkResultDto();
+        List<PendingUser> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        while (users.hasNext()) {
+            UserRequestDto userDto = users.next();
+            String error = validate(userDto);
+            if (error != null) {
+                result.add(new BulkItemResultDto(index, null, BulkItemStatus.INVALID, error));
+            } else {
+                chunk.add(new PendingUser(index, userDto));
+            }
+            index++;
+
+            if (chunk.size() == chunkSize) {
+                insertChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, result);
+        }
+
+        result.getItems().sort(Comparator.comparingInt(BulkItemResultDto::getIndex));
+        return result;
+    }
+
+    @Override
+    public BulkResultDto updateUsers(Iterator<BulkUserUpdateDto> updates) {
+        BulkResultDto result = new BulkResultDto();
+        List<PendingUpdate> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        while (updates.hasNext()) {
+            BulkUserUpdateDto update = updates.next();
+            String error = violations(update);
+            if (error != null) {
+                result.add(new BulkItemResultDto(index, update == null ? null : update.getId(), BulkItemStatus.INVALID, error));
+            } else {
+                chunk.add(new PendingUpdate(index, update));
+            }
+            index++;
+
+            if (chunk.size() == chunkSize) {
+                updateChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            updateChunk(chunk, result);
+        }
+
+        result.getItems().sort(Comparator.comparingInt(BulkItemResultDto::getIndex));
+        return result;
+    }
+
+    private String validate(UserRequestDto userDto) {
+        String error = violations(userDto);
+        if (error != null) {
+            return error;
+        }
+        if (Period.between(userDto.getBirthDate(), LocalDate.now()).getYears() < minAge) {
+            return "User must be at least " + minAge + " years old.";
+        }
+        return null;
+    }
+
+    private <T> String violations(T dto) {
+        if (dto == null) {
+            return "Item must not be null";
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void insertChunk(List<PendingUser> chunk, BulkResultDto result) {
+        Set<String> emails = chunk.stream()
+                .map(pending -> pending.userDto().getEmail())
+                .collect(Collectors.toSet());
+        Set<String> existingEmails = userRepository.findExistingEmails(emails);
+
+        Set<String> chunkEmails = new HashSet<>();
+        List<PendingUser> toInsert = new ArrayList<>(chunk.size());
+        for (PendingUser pending : chunk) {
+            String email = pending.userDto().getEmail();
+            if (existingEmails.contains(email) || !chunkEmails.add(email)) {
+                result.add(duplicate(pending));
+            } else {
+                toInsert.add(pending);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        List<User> entities = toInsert.stream()
+                .map(pending -> userMapper.toEntity(pending.userDto()))
+                .collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAllAndFlush(entities);
+                userChangeService.recordAll(UserEventType.CREATED, entities.stream()
+                        .map(userMapper::toResponseDto)
+                        .toList());
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (!DataIntegrityViolations.isDuplicateEmail(e)) {
+                throw e;
+            }
+            insertOneByOne(toInsert, result);
+            return;
+        }
+        for (int i = 0; i < toInsert.size(); i++) {
+            result.add(new BulkItemResultDto(toInsert.get(i).index(), entities.get(i).getId(), BulkItemStatus.CREATED, null));
+        }
+    }
+
+    private void insertOneByOne(List<PendingUser> pendingUsers, BulkResultDto result) {
+        for (PendingUser pending : pendingUsers) {
+            User user = userMapper.toEntity(pending.userDto());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    UserResponseDto created = userMapper.toResponseDto(userRepository.saveAndFlush(user));
+                    userChangeService.record(UserEventType.CREATED, created.getId(), created);
+                });
+                result.add(new BulkItemResultDto(pending.index(), user.getId(), BulkItemStatus.CREATED, null));
+            } catch (DataIntegrityViolationException e) {
+                if (!DataIntegrityViolations.isDuplicateEmail(e)) {
+                    throw e;
+                }
+                result.add(duplicate(pending));
+            }
+        }
+    }
+
+    private void updateChunk(List<PendingUpdate> chunk, BulkResultDto result) {
+        List<BulkItemResultDto> items;
+        try {
+            items = transactionTemplate.execute(status -> applyUpdates(chunk));
+        } catch (DataIntegrityViolationException e) {
+            if (!DataIntegrityViolations.isDuplicateEmail(e)) {
+                throw e;
+            }
+            items = updateOneByOne(chunk);
+        } catch (OptimisticLockingFailureException e) {
+            items = updateOneByOne(chunk);
+        }
+
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        for (BulkItemResultDto item : items) {
+            result.add(item);
+            if (item.getStatus() == BulkItemStatus.UPDATED && cache != null) {
+                cache.evict(item.getId());
+            }
+        }
+    }
+
+    private List<BulkItemResultDto> updateOneByOne(List<PendingUpdate> chunk) {
+        List<BulkItemResultDto> items = new ArrayList<>(chunk.size());
+        for (PendingUpdate pending : chunk) {
+            items.add(updateOne(pending));
+        }
+        return items;
+    }
+
+    private BulkItemResultDto updateOne(PendingUpdate pending) {
+        try {
+            return transactionTemplate.execute(status -> applyUpdates(List.of(pending))).get(0);
+        } catch (DataIntegrityViolationException e) {
+            if (!DataIntegrityViolations.isDuplicateEmail(e)) {
+                throw e;
+            }
+            return duplicate(pending.index(), pending.update().getId(), pending.update().getFields().getEmail());
+        } catch (OptimisticLockingFailureException e) {
+            return new BulkItemResultDto(pending.index(), pending.update().getId(), BulkItemStatus.CONFLICT,
+                    "User was modified concurrently, please retry");
+        }
+    }
+
+    private List<BulkItemResultDto> applyUpdates(List<PendingUpdate> chunk) {
+        Set<Long> ids = chunk.stream()
+                .map(pending -> pending.update().getId())
+                .collect(Collectors.toSet());
+        Map<Long, User> users = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Long> versions = new HashMap<>();
+        users.values().forEach(user -> versions.put(user.getId(), user.getVersion()));
+
+        Set<String> emails = chunk.stream()
+                .map(pending -> pending.update().getFields().getEmail())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> existingEmails = emails.isEmpty() ? Set.of() : userRepository.findExistingEmails(emails);
+
+        List<BulkItemResultDto> items = new ArrayList<>(chunk.size());
+        for (PendingUpdate pending : chunk) {
+            items.add(applyUpdate(pending, users.get(pending.update().getId()), existingEmails));
+        }
+        userRepository.flush();
+
+        List<UserResponseDto> changed = users.values().stream()
+                .filter(user -> !Objects.equals(versions.get(user.getId()), user.getVersion()))
+                .map(userMapper::toResponseDto)
+                .toList();
+        if (!changed.isEmpty()) {
+            userChangeService.recordAll(UserEventType.UPDATED, changed);
+        }
+        return items;
+    }
+
+    private BulkItemResultDto applyUpdate(PendingUpdate pending, User user, Set<String> existingEmails) {
+        Long id = pending.update().getId();
+        if (user == null) {
+            return new BulkItemResultDto(pending.index(), id, BulkItemStatus.NOT_FOUND,
+                    "User with ID: " + id + " was not found");
+        }
+        String email = pending.update().getFields().getEmail();
+        if (email != null && !email.equals(user.getEmail()) && existingEmails.contains(email)) {
+            return duplicate(pending.index(), id, email);
+        }
+        userMapper.updateEntityFields(pending.update().getFields(), user);
+        return new BulkItemResultDto(pending.index(), id, BulkItemStatus.UPDATED, null);
+    }
+
+    private BulkItemResultDto duplicate(PendingUser pending) {
+        return duplicate(pending.index(), null, pending.userDto().getEmail());
+    }
+
+    private BulkItemResultDto duplicate(int index, Long id, String email) {
+        return new BulkItemResultDto(index, id, BulkItemStatus.DUPLICATE, "This email already exists: " + email);
+    }
+
+    private record PendingUser(int index, UserRequestDto userDto) {
+    }
+
+    private record PendingUpdate(int index, BulkUserUpdateDto update) {
+    }
+}
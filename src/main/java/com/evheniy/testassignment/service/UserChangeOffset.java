@@ -0,0 +1,30 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.exception.InvalidChangeOffsetException;
+
+record UserChangeOffset(long txId, long eventId) {
+
+    static final UserChangeOffset START = new UserChangeOffset(0, 0);
+
+    private static final char SEPARATOR = '-';
+
+    String encode() {
+        return String.valueOf(txId) + SEPARATOR + eventId;
+    }
+
+    static UserChangeOffset decode(String token) {
+        if (token == null || token.isBlank() || "0".equals(token)) {
+            return START;
+        }
+        int separator = token.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new InvalidChangeOffsetException("Invalid change offset: " + token);
+        }
+        try {
+            return new UserChangeOffset(Long.parseLong(token.substring(0, separator)),
+                    Long.parseLong(token.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new InvalidChangeOffsetException("Invalid change offset: " + token);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.dto.UserChangesDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.model.UserEventType;
+
+import java.util.List;
+
+public interface UserChangeService {
+
+    void record(UserEventType type, Long userId, UserResponseDto user);
+
+    void recordAll(UserEventType type, List<UserResponseDto> users);
+
+    UserChangesDto findChanges(String since, Integer limit);
+}
@@ -0,0 +1,76 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.dto.UserChangesDto;
+import com.evheniy.testassignment.dto.UserEventDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.model.UserEvent;
+import com.evheniy.testassignment.model.UserEventType;
+import com.evheniy.testassignment.repository.UserEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class UserChangeServiceImpl implements UserChangeService {
+
+    private final UserEventRepository userEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${user.changes.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${user.changes.max-page-size}")
+    private int maxPageSize;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void record(UserEventType type, Long userId, UserResponseDto user) {
+        userEventRepository.save(toEvent(type, userId, user));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void recordAll(UserEventType type, List<UserResponseDto> users) {
+        userEventRepository.saveAll(users.stream()
+                .map(user -> toEvent(type, user.getId(), user))
+                .toList());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public UserChangesDto findChanges(String since, Integer limit) {
+        UserChangeOffset offset = UserChangeOffset.decode(since);
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+
+        List<UserEventDto> events = userEventRepository.findCommittedAfter(offset.txId(), offset.eventId(), pageSize)
+                .stream()
+                .map(event -> new UserEventDto(new UserChangeOffset(event.getTxId(), event.getId()).encode(),
+                        event.getType(), event.getUserId(), event.getPayload(), event.getCreatedAt()))
+                .toList();
+
+        String nextOffset = events.isEmpty() ? offset.encode() : events.get(events.size() - 1).getOffset();
+        return new UserChangesDto(events, nextOffset);
+    }
+
+    private UserEvent toEvent(UserEventType type, Long userId, UserResponseDto user) {
+        UserEvent event = new UserEvent();
+        event.setType(type);
+        event.setUserId(userId);
+        if (user != null) {
+            try {
+                event.setPayload(objectMapper.writeValueAsString(user));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return event;
+    }
+}
@@ -0,0 +1,74 @@
+package com.evheniy.testassignment.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+@Profile("partitioned")
+@RequiredArgsConstructor
+public class UserPartitionBackfill implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserPartitionBackfill.class);
+
+    // FOR SHARE makes concurrent updates of the batch wait until it is copied, so the mirror trigger
+    // always finds the row it has to update; rows the trigger already copied are skipped on conflict.
+    private static final String COPY_BATCH = """
+            WITH batch AS (
+                SELECT id, email, first_name, last_name, birth_date, address, phone_number, version
+                FROM users WHERE id > ? ORDER BY id LIMIT ? FOR SHARE
+            ), copied AS (
+                INSERT INTO users_partitioned (id, email, first_name, last_name, birth_date, address, phone_number, version)
+                SELECT id, email, first_name, last_name, birth_date, address, phone_number, version FROM batch
+                ON CONFLICT (id, birth_date) DO NOTHING
+            )
+            SELECT max(id), count(*) FROM batch
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${user.partition-backfill.batch-size}")
+    private int batchSize;
+
+    @Value("${user.partition-backfill.pause-ms}")
+    private long pauseMillis;
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass('users_partitioned') IS NOT NULL", Boolean.class)) {
+            long copied = backfill();
+            LOGGER.info("Copied {} users into users_partitioned, restart to swap in the partitioned table", copied);
+        }
+    }
+
+    public long backfill() throws InterruptedException {
+        long lastId = 0;
+        long users = 0;
+        long batches = 0;
+        while (true) {
+            long afterId = lastId;
+            BatchResult batch = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(COPY_BATCH,
+                    (resultSet, rowNum) -> new BatchResult(resultSet.getLong(1), resultSet.getLong(2)), afterId, batchSize));
+            if (batch == null || batch.users() == 0) {
+                return users;
+            }
+            lastId = batch.lastId();
+            users += batch.users();
+            if (++batches % 100 == 0) {
+                LOGGER.info("Partition backfill reached user id {}", lastId);
+            }
+            Thread.sleep(pauseMillis);
+        }
+    }
+
+    private record BatchResult(long lastId, long users) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.exception.InvalidSearchCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+record UserSearchCursor(LocalDate birthDate, Long id) {
+
+    private static final char SEPARATOR = ':';
+
+    String encode() {
+        String raw = birthDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserSearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidSearchCursorException("Invalid search cursor: " + token);
+            }
+            return new UserSearchCursor(LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidSearchCursorException("Invalid search cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.repository.UserRangeFingerprint;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+// Mirrors UserRepository.findRangeFingerprint: count, max(version) and the xor of the first 64 bits of
+// md5(id:version) per row, so rows already fetched for a response give the same version as the aggregate.
+public final class UserSearchVersion {
+
+    private UserSearchVersion() {
+    }
+
+    public static String of(List<UserResponseDto> users) {
+        MessageDigest md5 = md5();
+        long maxVersion = 0;
+        long hash = 0;
+        for (UserResponseDto user : users) {
+            long version = user.getVersion() == null ? 0 : user.getVersion();
+            maxVersion = Math.max(maxVersion, version);
+            byte[] digest = md5.digest((user.getId() + ":" + version).getBytes(StandardCharsets.UTF_8));
+            hash ^= ByteBuffer.wrap(digest).getLong();
+        }
+        return format(users.size(), maxVersion, hash);
+    }
+
+    static String of(UserRangeFingerprint fingerprint) {
+        return format(fingerprint.getCount(), fingerprint.getMaxVersion(), fingerprint.getHash());
+    }
+
+    private static String format(long count, long maxVersion, long hash) {
+        return Long.toHexString(count) + "-" + Long.toHexString(maxVersion) + "-" + Long.toHexString(hash);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
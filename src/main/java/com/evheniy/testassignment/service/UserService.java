@@ -1,21 +1,45 @@
 package com.evheniy.testassignment.service;
 
+import com.evheniy.testassignment.dto.UserAggregationGroup;
+import com.evheniy.testassignment.dto.UserCountDto;
 import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserPageResponseDto;
 import com.evheniy.testassignment.dto.UserRequestDto;
 import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserSearchDto;
+import com.evheniy.testassignment.dto.UserTextSearchDto;
 import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
+    UserResponseDto getUser(Long id);
+
+    UserResponseDto getUserByEmail(String email);
+
     UserResponseDto createUser(UserRequestDto userDto);
 
-    UserResponseDto updateUser(Long id, UserRequestDto userDto);
+    UserResponseDto updateUser(Long id, UserRequestDto userDto, Long expectedVersion);
+
+    UserResponseDto updateUserFields(Long id, UserUpdateFieldsDto userDto, Long expectedVersion);
 
-    UserResponseDto updateUserFields(Long id, UserUpdateFieldsDto userDto);
+    void removeUser(Long id, Long expectedVersion);
 
-    void removeUser(Long id);
+    String getSearchVersion(UserDateRangeDto dateRangeDto);
 
     List<UserResponseDto> findUsersByBirthDateRange(UserDateRangeDto dateRangeDto);
+
+    List<UserResponseDto> findUsers(UserSearchDto searchDto);
+
+    List<UserCountDto> countUsersByBirthDateRange(UserDateRangeDto dateRangeDto, UserAggregationGroup groupBy, Integer bucketSize);
+
+    UserPageResponseDto findUsersPageByBirthDateRange(UserDateRangeDto dateRangeDto, String cursor, Integer size);
+
+    UserPageResponseDto searchUsers(UserTextSearchDto searchDto, String cursor, Integer size);
+
+    void streamUsersByBirthDateRange(UserDateRangeDto dateRangeDto, Consumer<UserResponseDto> consumer);
+
+    void streamUsers(UserSearchDto searchDto, Consumer<UserResponseDto> consumer);
 }
@@ -1,116 +1,377 @@
 package com.evheniy.testassignment.service;
 
+import com.evheniy.testassignment.config.CacheConfig;
+import com.evheniy.testassignment.config.ReplicaRouting;
+import com.evheniy.testassignment.dto.EmailNormalizer;
+import com.evheniy.testassignment.dto.UserAggregationGroup;
+import com.evheniy.testassignment.dto.UserCountDto;
 import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserPageResponseDto;
 import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserFilterDto;
+import com.evheniy.testassignment.dto.UserFilterOperator;
 import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserSearchDto;
+import com.evheniy.testassignment.dto.UserSearchField;
+import com.evheniy.testassignment.dto.UserTextSearchDto;
 import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
 import com.evheniy.testassignment.exception.EmailAlreadyExistsException;
 import com.evheniy.testassignment.exception.InvalidDateRangeException;
+import com.evheniy.testassignment.exception.InvalidSearchCursorException;
+import com.evheniy.testassignment.exception.InvalidSearchFilterException;
 import com.evheniy.testassignment.exception.UserLowAgeException;
 import com.evheniy.testassignment.exception.UserNotFoundException;
+import com.evheniy.testassignment.exception.UserVersionMismatchException;
+import com.evheniy.testassignment.mapper.UserMapper;
 import com.evheniy.testassignment.model.User;
+import com.evheniy.testassignment.model.UserEventType;
+import com.evheniy.testassignment.repository.UserRangeFingerprint;
 import com.evheniy.testassignment.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "user.service", histogram = true)
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
+    private final MeterRegistry meterRegistry;
+    private final UserChangeService userChangeService;
 
     @Value("${user.min-age}")
     private int minAge;
 
+    @Value("${user.search.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${user.search.max-page-size}")
+    private int maxPageSize;
+
+    @Value("${user.text-search.default-page-size}")
+    private int defaultTextSearchPageSize;
+
+    @Value("${user.text-search.max-page-size}")
+    private int maxTextSearchPageSize;
+
+    @Value("${user.text-search.max-offset}")
+    private int maxTextSearchOffset;
+
+    @Value("${user.aggregate.default-bucket-size}")
+    private int defaultBucketSize;
+
+
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional(readOnly = true)
+    @Override
+    public UserResponseDto getUser(Long id) {
+        // Read from the primary: a lagging replica would put a stale user into the cache.
+        return ReplicaRouting.onPrimary(() -> userRepository.findById(id))
+                .map(userMapper::toResponseDto)
+                .orElseThrow(() -> new UserNotFoundException("User with ID: " + id + " was not found"));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public UserResponseDto getUserByEmail(String email) {
+        return userRepository.findResponseByEmail(EmailNormalizer.normalize(email))
+                .orElseThrow(() -> new UserNotFoundException("User with email: " + email + " was not found"));
+    }
 
     @Transactional
     @Override
     public UserResponseDto createUser(UserRequestDto userDto) {
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            throw new EmailAlreadyExistsException("This email already exists: " + userDto.getEmail());
-        }
         if (Period.between(userDto.getBirthDate(), LocalDate.now()).getYears() < minAge) {
             throw new UserLowAgeException("User must be at least " + minAge + " years old.");
         }
-        User user = buildUser(userDto.getEmail(), userDto.getFirstName(),
-                userDto.getLastName(), userDto.getAddress(), userDto.getPhoneNumber(), userDto.getBirthDate());
+        User user = userMapper.toEntity(userDto);
 
-        return modelMapper.map(userRepository.save(user), UserResponseDto.class);
+        UserResponseDto created = userMapper.toResponseDto(saveWithUniqueEmail(user));
+        userChangeService.record(UserEventType.CREATED, created.getId(), created);
+        return created;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     @Transactional
     @Override
-    public UserResponseDto updateUser(Long id, UserRequestDto userDto) {
+    public UserResponseDto updateUser(Long id, UserRequestDto userDto, Long expectedVersion) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User with ID: " + id + " was not found"));
+        checkVersion(user, expectedVersion);
 
-        user.setEmail(userDto.getEmail());
-        user.setFirstName(userDto.getFirstName());
-        user.setLastName(userDto.getLastName());
-        user.setAddress(userDto.getAddress());
-        user.setPhoneNumber(userDto.getPhoneNumber());
-        user.setBirthDate(userDto.getBirthDate());
-
-        return modelMapper.map(userRepository.save(user), UserResponseDto.class);
-    }
-
-    private User buildUser(String email, String firstName, String lastName, String address, String phoneNumber, LocalDate birthDate) {
-        User user = new User();
-
-        user.setEmail(email);
-        user.setFirstName(firstName);
-        user.setLastName(lastName);
-        user.setAddress(address);
-        user.setPhoneNumber(phoneNumber);
-        user.setBirthDate(birthDate);
+        UserRequestDto current = userMapper.toRequestDto(user);
+        userMapper.updateEntity(userDto, user);
 
-        return user;
+        return saveIfChanged(current, user);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     @Transactional
     @Override
-    public UserResponseDto updateUserFields(Long id, UserUpdateFieldsDto userDto) {
+    public UserResponseDto updateUserFields(Long id, UserUpdateFieldsDto userDto, Long expectedVersion) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User with ID: " + id + " was not found"));
+        checkVersion(user, expectedVersion);
 
-        if (userDto.getEmail() != null) user.setEmail(userDto.getEmail());
-        if (userDto.getFirstName() != null) user.setFirstName(userDto.getFirstName());
-        if (userDto.getLastName() != null) user.setLastName(userDto.getLastName());
-        if (userDto.getBirthDate() != null) user.setBirthDate(userDto.getBirthDate());
-        if (userDto.getAddress() != null) user.setAddress(userDto.getAddress());
-        if (userDto.getPhoneNumber() != null) user.setPhoneNumber(userDto.getPhoneNumber());
+        UserRequestDto current = userMapper.toRequestDto(user);
+        userMapper.updateEntityFields(userDto, user);
+
+        return saveIfChanged(current, user);
+    }
 
-        userRepository.save(user);
+    private UserResponseDto saveIfChanged(UserRequestDto current, User user) {
+        if (current.equals(userMapper.toRequestDto(user))) {
+            return userMapper.toResponseDto(user);
+        }
+        UserResponseDto updated = userMapper.toResponseDto(saveWithUniqueEmail(user));
+        userChangeService.record(UserEventType.UPDATED, updated.getId(), updated);
+        return updated;
+    }
 
-        return modelMapper.map(user, UserResponseDto.class);
+    private User saveWithUniqueEmail(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (DataIntegrityViolations.isDuplicateEmail(e)) {
+                throw new EmailAlreadyExistsException("This email already exists: " + user.getEmail());
+            }
+            throw e;
+        }
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     @Transactional
     @Override
-    public void removeUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException("User with ID: " + id + " was not found");
+    public void removeUser(Long id, Long expectedVersion) {
+        if (expectedVersion != null) {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new UserNotFoundException("User with ID: " + id + " was not found"));
+            checkVersion(user, expectedVersion);
+            userRepository.delete(user);
+        } else {
+            if (!userRepository.existsById(id)) {
+                throw new UserNotFoundException("User with ID: " + id + " was not found");
+            }
+            userRepository.deleteById(id);
+        }
+        userChangeService.record(UserEventType.DELETED, id, null);
+    }
+
+    private void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new UserVersionMismatchException("User with ID: " + user.getId()
+                    + " has been modified, expected version " + expectedVersion + " but found " + user.getVersion());
         }
-        userRepository.deleteById(id);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public String getSearchVersion(UserDateRangeDto dateRangeDto) {
+        validateDateRange(dateRangeDto);
+
+        UserRangeFingerprint fingerprint = userRepository.findRangeFingerprint(
+                dateRangeDto.getStartDate(), dateRangeDto.getEndDate());
+        return UserSearchVersion.of(fingerprint);
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public List<UserResponseDto> findUsersByBirthDateRange(UserDateRangeDto dateRangeDto) {
+        validateDateRange(dateRangeDto);
+
+        List<UserResponseDto> users = userRepository.findResponsesByBirthDateBetween(
+                dateRangeDto.getStartDate(), dateRangeDto.getEndDate());
+        recordSearchResults("list", users.size());
+        return users;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserResponseDto> findUsers(UserSearchDto searchDto) {
+        if (!searchDto.hasCriteria()) {
+            return findUsersByBirthDateRange(searchDto);
+        }
+        validateDateRange(searchDto);
+        validateSearchCriteria(searchDto);
+
+        List<UserResponseDto> users = userRepository.findResponses(searchDto);
+        recordSearchResults("list", users.size());
+        return users;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserCountDto> countUsersByBirthDateRange(UserDateRangeDto dateRangeDto, UserAggregationGroup groupBy,
+                                                         Integer bucketSize) {
+        validateDateRange(dateRangeDto);
+
+        int size = bucketSize == null ? defaultBucketSize : Math.max(1, bucketSize);
+        return userRepository.countByBirthDateBetween(dateRangeDto.getStartDate(), dateRangeDto.getEndDate(),
+                        groupBy.name(), size)
+                .stream()
+                .map(count -> new UserCountDto(count.getBucket(), count.getUsers()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public UserPageResponseDto findUsersPageByBirthDateRange(UserDateRangeDto dateRangeDto, String cursor, Integer size) {
+        validateDateRange(dateRangeDto);
+
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        Limit limit = Limit.of(pageSize + 1);
+        List<UserResponseDto> users;
+        if (cursor == null || cursor.isBlank()) {
+            users = userRepository.findResponsePage(dateRangeDto.getStartDate(), dateRangeDto.getEndDate(), limit);
+        } else {
+            UserSearchCursor after = UserSearchCursor.decode(cursor);
+            users = userRepository.findResponsePageAfter(dateRangeDto.getStartDate(), dateRangeDto.getEndDate(),
+                    after.birthDate(), after.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            UserResponseDto last = users.get(pageSize - 1);
+            nextCursor = new UserSearchCursor(LocalDate.parse(last.getBirthDate()), last.getId()).encode();
+        }
+
+        recordSearchResults("page", users.size());
+        return new UserPageResponseDto(users, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public UserPageResponseDto searchUsers(UserTextSearchDto searchDto, String cursor, Integer size) {
+        String query = searchDto.getQuery().trim().toLowerCase(Locale.ROOT);
+        String prefix = query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        int pageSize = size == null ? defaultTextSearchPageSize : Math.max(1, Math.min(size, maxTextSearchPageSize));
+        int offset = decodeOffset(cursor);
+
+        List<UserResponseDto> users = userRepository.searchByText(query, prefix, pageSize + 1, offset).stream()
+                .map(userMapper::toResponseDto)
+                .toList();
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            // Deep offsets rank and skip every earlier match, so paging stops at the configured depth.
+            if (offset + pageSize <= maxTextSearchOffset) {
+                nextCursor = String.valueOf(offset + pageSize);
+            }
+        }
+
+        recordSearchResults("text", users.size());
+        return new UserPageResponseDto(users, nextCursor);
+    }
+
+    private int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset < 0 || offset > maxTextSearchOffset) {
+                throw new InvalidSearchCursorException("Invalid search cursor: " + cursor);
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new InvalidSearchCursorException("Invalid search cursor: " + cursor);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamUsersByBirthDateRange(UserDateRangeDto dateRangeDto, Consumer<UserResponseDto> consumer) {
+        validateDateRange(dateRangeDto);
+
+        try (Stream<UserResponseDto> users = userRepository.streamResponsesByBirthDateBetween(
+                dateRangeDto.getStartDate(), dateRangeDto.getEndDate())) {
+            int[] count = {0};
+            users.forEach(user -> {
+                consumer.accept(user);
+                count[0]++;
+            });
+            recordSearchResults("stream", count[0]);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamUsers(UserSearchDto searchDto, Consumer<UserResponseDto> consumer) {
+        if (!searchDto.hasCriteria()) {
+            streamUsersByBirthDateRange(searchDto, consumer);
+            return;
+        }
+        validateDateRange(searchDto);
+        validateSearchCriteria(searchDto);
+
+        try (Stream<UserResponseDto> users = userRepository.streamResponses(searchDto)) {
+            int[] count = {0};
+            users.forEach(user -> {
+                consumer.accept(user);
+                count[0]++;
+            });
+            recordSearchResults("stream", count[0]);
+        }
+    }
+
+    private void validateSearchCriteria(UserSearchDto searchDto) {
+        for (UserFilterDto filter : searchDto.getFilters()) {
+            UserFilterOperator operator = filter.getOperator();
+            boolean unary = operator == UserFilterOperator.IS_NULL || operator == UserFilterOperator.IS_NOT_NULL;
+            if (unary != (filter.getValue() == null)) {
+                throw new InvalidSearchFilterException(unary
+                        ? operator + " filter on " + filter.getField() + " does not take a value"
+                        : operator + " filter on " + filter.getField() + " requires a value");
+            }
+            if (operator == UserFilterOperator.PREFIX && filter.getField().getType() != String.class) {
+                throw new InvalidSearchFilterException("PREFIX filter is not supported for " + filter.getField());
+            }
+            if (!unary && operator != UserFilterOperator.PREFIX) {
+                try {
+                    filter.getField().parse(filter.getValue());
+                } catch (RuntimeException e) {
+                    throw new InvalidSearchFilterException("Invalid value for " + filter.getField() + ": " + filter.getValue());
+                }
+            }
+        }
+        for (UserSearchField field : searchDto.getFields()) {
+            if (!field.isProjectable()) {
+                throw new InvalidSearchFilterException(field + " cannot be selected");
+            }
+        }
+    }
+
+    private void recordSearchResults(String mode, int size) {
+        DistributionSummary.builder("user.search.results")
+                .description("Users returned by a birth-date search")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(size);
+    }
+
+    private void validateDateRange(UserDateRangeDto dateRangeDto) {
         if (dateRangeDto.getStartDate().isAfter(dateRangeDto.getEndDate())) {
             throw new InvalidDateRangeException("Start date must be before end date");
         }
-
-        return userRepository.findByBirthDateBetween(dateRangeDto.getStartDate(), dateRangeDto.getEndDate()).stream()
-                .map(user -> modelMapper.map(user, UserResponseDto.class))
-                .collect(Collectors.toList());
     }
 }
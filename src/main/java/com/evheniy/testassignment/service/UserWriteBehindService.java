@@ -0,0 +1,11 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.dto.UserAsyncUpdateDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+
+public interface UserWriteBehindService {
+
+    UserAsyncUpdateDto enqueue(Long id, UserUpdateFieldsDto userDto);
+
+    UserAsyncUpdateDto getStatus(String trackingId);
+}
@@ -0,0 +1,411 @@
+package com.evheniy.testassignment.service;
+
+import com.evheniy.testassignment.dto.BulkItemResultDto;
+import com.evheniy.testassignment.dto.BulkResultDto;
+import com.evheniy.testassignment.dto.BulkUserUpdateDto;
+import com.evheniy.testassignment.dto.UserAsyncUpdateDto;
+import com.evheniy.testassignment.dto.UserAsyncUpdateStatus;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.exception.AsyncUpdateNotFoundException;
+import com.evheniy.testassignment.exception.WriteBehindQueueFullException;
+import com.evheniy.testassignment.mapper.UserMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+public class UserWriteBehindServiceImpl implements UserWriteBehindService, SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserWriteBehindServiceImpl.class);
+
+    private static final byte NEWLINE = '\n';
+
+    private final UserBulkService userBulkService;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${user.write-behind.log-file}")
+    private String logFile;
+
+    @Value("${user.write-behind.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${user.write-behind.batch-size}")
+    private int batchSize;
+
+    @Value("${user.write-behind.flush-interval-ms}")
+    private long flushIntervalMillis;
+
+    @Value("${user.write-behind.max-log-bytes}")
+    private long maxLogBytes;
+
+    @Value("${user.write-behind.status-spec}")
+    private String statusSpec;
+
+    private final Object appendLock = new Object();
+    private final Object forceLock = new Object();
+    // Entries that are logged but not yet completed; compaction rewrites the log to just these.
+    private final Map<String, LogEntry> open = new LinkedHashMap<>();
+    private BlockingQueue<LogEntry> queue;
+    private Cache<String, UserAsyncUpdateDto> statuses;
+    private Counter coalesced;
+    private FileChannel log;
+    private long forcedPosition;
+    private long compactedSize;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Override
+    public UserAsyncUpdateDto enqueue(Long id, UserUpdateFieldsDto userDto) {
+        LogEntry entry = new LogEntry(UUID.randomUUID().toString(), id, userDto, UserAsyncUpdateStatus.QUEUED, null);
+        long position;
+        synchronized (appendLock) {
+            if (queue.remainingCapacity() == 0) {
+                throw new WriteBehindQueueFullException("Too many queued updates, retry later");
+            }
+            position = append(List.of(entry));
+            open.put(entry.trackingId(), entry);
+            statuses.put(entry.trackingId(), entry.toDto());
+            queue.add(entry);
+        }
+        force(position);
+        return entry.toDto();
+    }
+
+    @Override
+    public UserAsyncUpdateDto getStatus(String trackingId) {
+        UserAsyncUpdateDto status = statuses.getIfPresent(trackingId);
+        if (status == null) {
+            throw new AsyncUpdateNotFoundException("Async update with tracking ID: " + trackingId + " was not found");
+        }
+        return status;
+    }
+
+    @Override
+    public void start() {
+        statuses = Caffeine.from(statusSpec).build();
+        List<LogEntry> replayed;
+        synchronized (appendLock) {
+            replayed = Files.exists(Path.of(logFile)) ? replay() : List.of();
+            queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, replayed.size()));
+            queue.addAll(replayed);
+            replayed.forEach(entry -> open.put(entry.trackingId(), entry));
+        }
+        Gauge.builder("user.write-behind.queue", this, service -> service.queue.size())
+                .description("User updates waiting for the write-behind writer")
+                .register(meterRegistry);
+        coalesced = Counter.builder("user.write-behind.coalesced")
+                .description("Queued user updates merged into another update of the same user")
+                .register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::runWriter, "user-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (appendLock) {
+            if (log != null) {
+                try {
+                    log.close();
+                } catch (IOException e) {
+                    LOGGER.error("Could not close write-behind log: {}", e.getMessage());
+                }
+                log = null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after the web server, so queued updates are replayed before requests arrive
+    // and drained after the last request was accepted.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void runWriter() {
+        List<LogEntry> batch = new ArrayList<>(batchSize);
+        while (running || !batch.isEmpty() || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LogEntry first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    if (running) {
+                        Thread.sleep(flushIntervalMillis);
+                    }
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // stop() interrupts the writer so the remaining updates are flushed without waiting
+            } catch (RuntimeException e) {
+                if (!running) {
+                    LOGGER.error("Write-behind flush failed on shutdown, {} updates stay in the log: {}",
+                            queue.size() + batch.size(), e.getMessage());
+                    return;
+                }
+                LOGGER.error("Write-behind flush failed, retrying: {}", e.getMessage());
+                try {
+                    Thread.sleep(flushIntervalMillis);
+                } catch (InterruptedException ignored) {
+                    // retried right away on shutdown
+                }
+            }
+        }
+    }
+
+    private void flush(List<LogEntry> batch) {
+        Map<Long, List<LogEntry>> byUser = new LinkedHashMap<>();
+        for (LogEntry entry : batch) {
+            byUser.computeIfAbsent(entry.userId(), id -> new ArrayList<>()).add(entry);
+        }
+        List<List<LogEntry>> groups = new ArrayList<>(byUser.values());
+        coalesced.increment(batch.size() - groups.size());
+
+        BulkResultDto result = userBulkService.updateUsers(groups.stream()
+                .map(group -> new BulkUserUpdateDto(group.get(0).userId(), merge(group)))
+                .iterator());
+
+        List<LogEntry> done = new ArrayList<>(batch.size());
+        List<LogEntry> retry = new ArrayList<>();
+        for (BulkItemResultDto item : result.getItems()) {
+            List<LogEntry> group = groups.get(item.getIndex());
+            // One bad change, e.g. a taken email, fails the merged update; the other changes must not share its fate.
+            if (group.size() > 1 && !item.getStatus().isSuccess()) {
+                retry.addAll(group);
+                continue;
+            }
+            for (LogEntry entry : group) {
+                done.add(completed(entry, item));
+            }
+        }
+        if (!retry.isEmpty()) {
+            BulkResultDto retried = userBulkService.updateUsers(retry.stream()
+                    .map(entry -> new BulkUserUpdateDto(entry.userId(), entry.fields()))
+                    .iterator());
+            for (BulkItemResultDto item : retried.getItems()) {
+                done.add(completed(retry.get(item.getIndex()), item));
+            }
+        }
+        complete(done);
+    }
+
+    private static LogEntry completed(LogEntry entry, BulkItemResultDto item) {
+        UserAsyncUpdateStatus status = UserAsyncUpdateStatus.valueOf(item.getStatus().name());
+        return new LogEntry(entry.trackingId(), entry.userId(), null, status, item.getMessage());
+    }
+
+    private UserUpdateFieldsDto merge(List<LogEntry> group) {
+        if (group.size() == 1) {
+            return group.get(0).fields();
+        }
+        UserUpdateFieldsDto merged = new UserUpdateFieldsDto();
+        for (LogEntry entry : group) {
+            userMapper.mergeUpdateFields(entry.fields(), merged);
+        }
+        return merged;
+    }
+
+    private void complete(List<LogEntry> done) {
+        long position;
+        synchronized (appendLock) {
+            position = append(done);
+            done.forEach(entry -> {
+                open.remove(entry.trackingId());
+                statuses.put(entry.trackingId(), entry.toDto());
+            });
+        }
+        force(position);
+
+        synchronized (appendLock) {
+            try {
+                // Twice the last compacted size, so a large backlog of open entries is not rewritten on every flush.
+                long size = log.size();
+                if (size > maxLogBytes && size > 2 * compactedSize) {
+                    compact();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.error("Could not compact write-behind log: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Rewrites the log to the open entries in a temp file, syncs it and renames it over the log, so a crash
+    // at any point leaves either the old or the compacted log.
+    private void compact() throws IOException {
+        Path path = Path.of(logFile).toAbsolutePath();
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(serialize(open.values()));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        synchronized (forceLock) {
+            Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel directory = FileChannel.open(path.getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            }
+            log.close();
+            log = null;
+            openLog();
+            forcedPosition = log.size();
+            compactedSize = forcedPosition;
+        }
+    }
+
+    private List<LogEntry> replay() {
+        openLog();
+        Map<String, LogEntry> open = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(logFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LogEntry entry;
+                try {
+                    entry = objectMapper.readValue(line, LogEntry.class);
+                } catch (JsonProcessingException e) {
+                    LOGGER.error("Skipping unreadable write-behind log line: {}", e.getOriginalMessage());
+                    continue;
+                }
+                if (entry.status() == UserAsyncUpdateStatus.QUEUED) {
+                    open.put(entry.trackingId(), entry);
+                } else {
+                    open.remove(entry.trackingId());
+                }
+                statuses.put(entry.trackingId(), entry.toDto());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read write-behind log " + logFile, e);
+        }
+        if (!open.isEmpty()) {
+            LOGGER.info("Replaying {} queued user updates from {}", open.size(), logFile);
+        }
+        return new ArrayList<>(open.values());
+    }
+
+    private long append(List<LogEntry> entries) {
+        try {
+            openLog();
+            ByteBuffer buffer = ByteBuffer.wrap(serialize(entries));
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            return log.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to write-behind log " + logFile, e);
+        }
+    }
+
+    private byte[] serialize(Collection<LogEntry> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (LogEntry entry : entries) {
+            out.write(objectMapper.writeValueAsBytes(entry));
+            out.write(NEWLINE);
+        }
+        return out.toByteArray();
+    }
+
+    // Group commit: a request whose entry was already covered by another thread's fsync returns without one.
+    private void force(long position) {
+        synchronized (forceLock) {
+            if (forcedPosition >= position) {
+                return;
+            }
+            try {
+                long size = log.size();
+                log.force(false);
+                forcedPosition = size;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not sync write-behind log " + logFile, e);
+            }
+        }
+    }
+
+    private void openLog() {
+        if (log != null) {
+            return;
+        }
+        try {
+            Path path = Path.of(logFile).toAbsolutePath();
+            Files.createDirectories(path.getParent());
+            log = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (log.tryLock() == null) {
+                throw new IllegalStateException("Write-behind log " + logFile + " is used by another process");
+            }
+            long size = log.size();
+            // A crash in the middle of an append leaves a partial line; terminate it so the next entry stays readable.
+            if (size > 0) {
+                ByteBuffer last = ByteBuffer.allocate(1);
+                log.read(last, size - 1);
+                if (last.get(0) != NEWLINE) {
+                    log.write(ByteBuffer.wrap(new byte[]{NEWLINE}), size);
+                }
+            }
+            log.position(log.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open write-behind log " + logFile, e);
+        }
+    }
+
+    record LogEntry(String trackingId, Long userId, UserUpdateFieldsDto fields, UserAsyncUpdateStatus status,
+                    String message) {
+
+        UserAsyncUpdateDto toDto() {
+            return new UserAsyncUpdateDto(trackingId, userId, status, message);
+        }
+    }
+}
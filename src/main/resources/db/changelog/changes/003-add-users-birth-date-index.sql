@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset evheniy:003-add-users-birth-date-index runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_birth_date_id
+    ON users (birth_date, id) INCLUDE (email, first_name, last_name);
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_users_birth_date_id;
@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset evheniy:004-add-users-version
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+--rollback ALTER TABLE users DROP COLUMN version;
@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset evheniy:005-create-user-events-table
+CREATE SEQUENCE user_events_id_seq INCREMENT BY 50;
+CREATE TABLE user_events (
+    id BIGINT PRIMARY KEY,
+    tx_id BIGINT NOT NULL DEFAULT CAST(CAST(pg_current_xact_id() AS TEXT) AS BIGINT),
+    type VARCHAR(16) NOT NULL,
+    user_id BIGINT NOT NULL,
+    payload JSONB,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+CREATE INDEX idx_user_events_tx_id_id ON user_events (tx_id, id);
+--rollback DROP TABLE user_events;
+--rollback DROP SEQUENCE user_events_id_seq;
@@ -0,0 +1,53 @@
+--liquibase formatted sql
+
+--changeset evheniy:006-create-user-birth-date-counts-table
+CREATE TABLE user_birth_date_counts (
+    birth_date DATE PRIMARY KEY,
+    user_count BIGINT NOT NULL
+);
+INSERT INTO user_birth_date_counts (birth_date, user_count)
+SELECT birth_date, count(*) FROM users GROUP BY birth_date;
+--rollback DROP TABLE user_birth_date_counts;
+
+--changeset evheniy:006-create-user-birth-date-counts-function splitStatements:false
+CREATE FUNCTION user_birth_date_counts_apply() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO user_birth_date_counts (birth_date, user_count)
+        SELECT birth_date, count(*) FROM new_rows GROUP BY birth_date ORDER BY birth_date
+        ON CONFLICT (birth_date) DO UPDATE SET user_count = user_birth_date_counts.user_count + EXCLUDED.user_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO user_birth_date_counts (birth_date, user_count)
+        SELECT birth_date, -count(*) FROM old_rows GROUP BY birth_date ORDER BY birth_date
+        ON CONFLICT (birth_date) DO UPDATE SET user_count = user_birth_date_counts.user_count + EXCLUDED.user_count;
+    ELSE
+        INSERT INTO user_birth_date_counts (birth_date, user_count)
+        SELECT birth_date, sum(delta) FROM (
+            SELECT o.birth_date, -1 AS delta FROM old_rows o JOIN new_rows n ON n.id = o.id
+            WHERE n.birth_date <> o.birth_date
+            UNION ALL
+            SELECT n.birth_date, 1 FROM old_rows o JOIN new_rows n ON n.id = o.id
+            WHERE n.birth_date <> o.birth_date
+        ) changes
+        GROUP BY birth_date ORDER BY birth_date
+        ON CONFLICT (birth_date) DO UPDATE SET user_count = user_birth_date_counts.user_count + EXCLUDED.user_count;
+    END IF;
+    RETURN NULL;
+END
+$$;
+--rollback DROP FUNCTION user_birth_date_counts_apply();
+
+--changeset evheniy:006-create-user-birth-date-counts-triggers
+CREATE TRIGGER users_birth_date_counts_insert AFTER INSERT ON users
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
+CREATE TRIGGER users_birth_date_counts_update AFTER UPDATE ON users
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
+CREATE TRIGGER users_birth_date_counts_delete AFTER DELETE ON users
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
+--rollback DROP TRIGGER users_birth_date_counts_delete ON users;
+--rollback DROP TRIGGER users_birth_date_counts_update ON users;
+--rollback DROP TRIGGER users_birth_date_counts_insert ON users;
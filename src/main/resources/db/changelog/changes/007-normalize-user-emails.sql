@@ -0,0 +1,33 @@
+--liquibase formatted sql
+
+--changeset evheniy:007-dedupe-and-normalize-user-emails
+WITH ranked AS (
+    SELECT id, row_number() OVER (PARTITION BY lower(trim(email)) ORDER BY id) AS position
+    FROM users
+), removed AS (
+    DELETE FROM users u USING ranked r
+    WHERE u.id = r.id AND r.position > 1
+    RETURNING u.id
+)
+INSERT INTO user_events (id, type, user_id)
+SELECT nextval('user_events_id_seq'), 'DELETED', id FROM removed;
+
+WITH normalized AS (
+    UPDATE users SET email = lower(trim(email)), version = version + 1
+    WHERE email <> lower(trim(email))
+    RETURNING id, email, first_name, last_name, birth_date
+)
+INSERT INTO user_events (id, type, user_id, payload)
+SELECT nextval('user_events_id_seq'), 'UPDATED', id,
+       jsonb_build_object('id', id, 'email', email, 'firstName', first_name,
+                          'lastName', last_name, 'birthDate', birth_date)
+FROM normalized;
+--rollback SELECT 1;
+
+--changeset evheniy:007-add-users-email-lower-index runInTransaction:false
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower ON users (lower(email));
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_users_email_lower;
+
+--changeset evheniy:007-drop-users-email-key
+ALTER TABLE users DROP CONSTRAINT users_email_key;
+--rollback ALTER TABLE users ADD CONSTRAINT users_email_key UNIQUE (email);
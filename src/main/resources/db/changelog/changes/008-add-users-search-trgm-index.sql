@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset evheniy:008-create-pg-trgm-extension
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+--rollback DROP EXTENSION IF EXISTS pg_trgm;
+
+--changeset evheniy:008-add-users-search-trgm-index runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_search_trgm
+    ON users USING gin (lower(first_name || ' ' || last_name || ' ' || email) gin_trgm_ops);
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_users_search_trgm;
@@ -0,0 +1,74 @@
+--liquibase formatted sql
+
+--changeset evheniy:009-create-users-partitioned-table splitStatements:false
+CREATE TABLE users_partitioned (
+    id BIGINT NOT NULL DEFAULT nextval('users_id_seq'),
+    email VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    birth_date DATE NOT NULL,
+    address VARCHAR(255),
+    phone_number VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT users_partitioned_pkey PRIMARY KEY (id, birth_date)
+) PARTITION BY RANGE (birth_date);
+DO $$
+BEGIN
+    FOR decade IN 1900..2020 BY 10 LOOP
+        EXECUTE format('CREATE TABLE users_p%s PARTITION OF users_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       decade, make_date(decade, 1, 1), make_date(decade + 10, 1, 1));
+    END LOOP;
+END
+$$;
+CREATE TABLE users_pdefault PARTITION OF users_partitioned DEFAULT;
+CREATE INDEX idx_users_partitioned_birth_date_id ON users_partitioned (birth_date, id) INCLUDE (email, first_name, last_name);
+CREATE INDEX idx_users_partitioned_email_lower ON users_partitioned (lower(email));
+CREATE INDEX idx_users_partitioned_search_trgm
+    ON users_partitioned USING gin (lower(first_name || ' ' || last_name || ' ' || email) gin_trgm_ops);
+--rollback DROP TABLE users_partitioned;
+
+--changeset evheniy:009-create-user-emails-table splitStatements:false
+CREATE TABLE user_emails (
+    email VARCHAR(255) PRIMARY KEY,
+    user_id BIGINT NOT NULL
+);
+CREATE FUNCTION user_emails_apply() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM user_emails WHERE email = lower(OLD.email) AND user_id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO user_emails (email, user_id) VALUES (lower(NEW.email), NEW.id);
+    END IF;
+    RETURN NULL;
+END
+$$;
+CREATE TRIGGER users_partitioned_emails AFTER INSERT OR DELETE OR UPDATE OF id, email ON users_partitioned
+    FOR EACH ROW EXECUTE FUNCTION user_emails_apply();
+--rollback DROP TRIGGER users_partitioned_emails ON users_partitioned;
+--rollback DROP FUNCTION user_emails_apply();
+--rollback DROP TABLE user_emails;
+
+--changeset evheniy:009-mirror-users-into-partitioned-table splitStatements:false
+CREATE FUNCTION users_partition_mirror() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO users_partitioned (id, email, first_name, last_name, birth_date, address, phone_number, version)
+        VALUES (NEW.id, NEW.email, NEW.first_name, NEW.last_name, NEW.birth_date, NEW.address, NEW.phone_number, NEW.version);
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE users_partitioned
+        SET id = NEW.id, email = NEW.email, first_name = NEW.first_name, last_name = NEW.last_name,
+            birth_date = NEW.birth_date, address = NEW.address, phone_number = NEW.phone_number, version = NEW.version
+        WHERE id = OLD.id AND birth_date = OLD.birth_date;
+    ELSE
+        DELETE FROM users_partitioned WHERE id = OLD.id AND birth_date = OLD.birth_date;
+    END IF;
+    RETURN NULL;
+END
+$$;
+CREATE TRIGGER users_partition_mirror AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION users_partition_mirror();
+--rollback DROP TRIGGER users_partition_mirror ON users;
+--rollback DROP FUNCTION users_partition_mirror();
@@ -0,0 +1,54 @@
+--liquibase formatted sql
+
+--changeset evheniy:010-swap-in-partitioned-users
+--preconditions onFail:CONTINUE
+--precondition-sql-check expectedResult:0 SELECT count(*) FROM users u WHERE NOT EXISTS (SELECT 1 FROM users_partitioned p WHERE p.id = u.id AND p.birth_date = u.birth_date)
+LOCK TABLE users IN ACCESS EXCLUSIVE MODE;
+DROP TRIGGER users_partition_mirror ON users;
+DROP FUNCTION users_partition_mirror();
+DROP TRIGGER users_birth_date_counts_insert ON users;
+DROP TRIGGER users_birth_date_counts_update ON users;
+DROP TRIGGER users_birth_date_counts_delete ON users;
+
+ALTER TABLE users RENAME TO users_unpartitioned;
+ALTER TABLE users_unpartitioned RENAME CONSTRAINT users_pkey TO users_unpartitioned_pkey;
+ALTER INDEX idx_users_birth_date_id RENAME TO idx_users_unpartitioned_birth_date_id;
+ALTER INDEX idx_users_email_lower RENAME TO idx_users_unpartitioned_email_lower;
+ALTER INDEX idx_users_search_trgm RENAME TO idx_users_unpartitioned_search_trgm;
+
+ALTER TABLE users_partitioned RENAME TO users;
+ALTER TABLE users RENAME CONSTRAINT users_partitioned_pkey TO users_pkey;
+ALTER INDEX idx_users_partitioned_birth_date_id RENAME TO idx_users_birth_date_id;
+ALTER INDEX idx_users_partitioned_email_lower RENAME TO idx_users_email_lower;
+ALTER INDEX idx_users_partitioned_search_trgm RENAME TO idx_users_search_trgm;
+ALTER TRIGGER users_partitioned_emails ON users RENAME TO users_emails;
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
+
+CREATE TRIGGER users_birth_date_counts_insert AFTER INSERT ON users
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
+CREATE TRIGGER users_birth_date_counts_update AFTER UPDATE ON users
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
+CREATE TRIGGER users_birth_date_counts_delete AFTER DELETE ON users
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
+--rollback LOCK TABLE users IN ACCESS EXCLUSIVE MODE;
+--rollback DROP TRIGGER users_birth_date_counts_insert ON users;
+--rollback DROP TRIGGER users_birth_date_counts_update ON users;
+--rollback DROP TRIGGER users_birth_date_counts_delete ON users;
+--rollback ALTER TRIGGER users_emails ON users RENAME TO users_partitioned_emails;
+--rollback ALTER INDEX idx_users_search_trgm RENAME TO idx_users_partitioned_search_trgm;
+--rollback ALTER INDEX idx_users_email_lower RENAME TO idx_users_partitioned_email_lower;
+--rollback ALTER INDEX idx_users_birth_date_id RENAME TO idx_users_partitioned_birth_date_id;
+--rollback ALTER TABLE users RENAME CONSTRAINT users_pkey TO users_partitioned_pkey;
+--rollback ALTER TABLE users RENAME TO users_partitioned;
+--rollback ALTER INDEX idx_users_unpartitioned_search_trgm RENAME TO idx_users_search_trgm;
+--rollback ALTER INDEX idx_users_unpartitioned_email_lower RENAME TO idx_users_email_lower;
+--rollback ALTER INDEX idx_users_unpartitioned_birth_date_id RENAME TO idx_users_birth_date_id;
+--rollback ALTER TABLE users_unpartitioned RENAME CONSTRAINT users_unpartitioned_pkey TO users_pkey;
+--rollback ALTER TABLE users_unpartitioned RENAME TO users;
+--rollback ALTER SEQUENCE users_id_seq OWNED BY users.id;
+--rollback CREATE TRIGGER users_birth_date_counts_insert AFTER INSERT ON users REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
+--rollback CREATE TRIGGER users_birth_date_counts_update AFTER UPDATE ON users REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
+--rollback CREATE TRIGGER users_birth_date_counts_delete AFTER DELETE ON users REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION user_birth_date_counts_apply();
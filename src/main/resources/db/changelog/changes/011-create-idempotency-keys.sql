@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset evheniy:011-create-idempotency-keys-table
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_hash BYTEA NOT NULL,
+    status SMALLINT NOT NULL,
+    headers TEXT,
+    body BYTEA,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
+--rollback DROP TABLE idempotency_keys;
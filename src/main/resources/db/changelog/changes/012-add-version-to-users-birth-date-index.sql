@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+--changeset evheniy:012-create-users-birth-date-version-index runInTransaction:false
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid = to_regclass('users') AND relkind = 'r'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_birth_date_id_version
+    ON users (birth_date, id) INCLUDE (email, first_name, last_name, version);
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_users_birth_date_id_version;
+
+--changeset evheniy:012-drop-users-birth-date-index runInTransaction:false
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid = to_regclass('idx_users_birth_date_id_version')
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_birth_date_id;
+--rollback CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_birth_date_id ON users (birth_date, id) INCLUDE (email, first_name, last_name);
+
+--changeset evheniy:012-rename-users-birth-date-version-index
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid = to_regclass('idx_users_birth_date_id_version')
+ALTER INDEX idx_users_birth_date_id_version RENAME TO idx_users_birth_date_id;
+--rollback ALTER INDEX idx_users_birth_date_id RENAME TO idx_users_birth_date_id_version;
@@ -0,0 +1,81 @@
+--liquibase formatted sql
+
+--changeset evheniy:013-create-partitioned-users-birth-date-version-index splitStatements:false
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid IN (to_regclass('users'), to_regclass('users_partitioned')) AND relkind = 'p'
+DO $$
+DECLARE
+    parent TEXT;
+BEGIN
+    SELECT relname INTO parent FROM pg_class
+    WHERE oid IN (to_regclass('users'), to_regclass('users_partitioned')) AND relkind = 'p';
+    EXECUTE format('CREATE INDEX IF NOT EXISTS idx_users_birth_date_id_version ON ONLY %I (birth_date, id) INCLUDE (email, first_name, last_name, version)', parent);
+END
+$$;
+--rollback DROP INDEX IF EXISTS idx_users_birth_date_id_version;
+
+--changeset evheniy:013-create-users-partition-birth-date-version-indexes runInTransaction:false
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid = to_regclass('idx_users_birth_date_id_version')
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1900_birth_date_id_version_idx ON users_p1900 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1910_birth_date_id_version_idx ON users_p1910 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1920_birth_date_id_version_idx ON users_p1920 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1930_birth_date_id_version_idx ON users_p1930 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1940_birth_date_id_version_idx ON users_p1940 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1950_birth_date_id_version_idx ON users_p1950 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1960_birth_date_id_version_idx ON users_p1960 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1970_birth_date_id_version_idx ON users_p1970 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1980_birth_date_id_version_idx ON users_p1980 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p1990_birth_date_id_version_idx ON users_p1990 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p2000_birth_date_id_version_idx ON users_p2000 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p2010_birth_date_id_version_idx ON users_p2010 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_p2020_birth_date_id_version_idx ON users_p2020 (birth_date, id) INCLUDE (email, first_name, last_name, version);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_pdefault_birth_date_id_version_idx ON users_pdefault (birth_date, id) INCLUDE (email, first_name, last_name, version);
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1900_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1910_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1920_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1930_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1940_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1950_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1960_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1970_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1980_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p1990_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p2000_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p2010_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_p2020_birth_date_id_version_idx;
+--rollback DROP INDEX CONCURRENTLY IF EXISTS users_pdefault_birth_date_id_version_idx;
+
+--changeset evheniy:013-attach-users-partition-birth-date-version-indexes
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid = to_regclass('idx_users_birth_date_id_version')
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1900_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1910_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1920_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1930_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1940_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1950_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1960_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1970_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1980_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p1990_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p2000_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p2010_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_p2020_birth_date_id_version_idx;
+ALTER INDEX idx_users_birth_date_id_version ATTACH PARTITION users_pdefault_birth_date_id_version_idx;
+--rollback SELECT 1;
+
+--changeset evheniy:013-replace-partitioned-users-birth-date-index splitStatements:false
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM pg_class WHERE oid = to_regclass('idx_users_birth_date_id_version')
+DO $$
+DECLARE
+    index_name TEXT;
+BEGIN
+    SELECT CASE relname WHEN 'users' THEN 'idx_users_birth_date_id' ELSE 'idx_users_partitioned_birth_date_id' END
+    INTO index_name FROM pg_class WHERE oid IN (to_regclass('users'), to_regclass('users_partitioned')) AND relkind = 'p';
+    EXECUTE format('DROP INDEX IF EXISTS %I', index_name);
+    EXECUTE format('ALTER INDEX idx_users_birth_date_id_version RENAME TO %I', index_name);
+END
+$$;
+--rollback SELECT 1;
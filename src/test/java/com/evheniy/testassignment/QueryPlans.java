@@ -0,0 +1,30 @@
+package com.evheniy.testassignment;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    static String explain(Connection connection, String sql) throws SQLException {
+        List<String> lines = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql); ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                lines.add(resultSet.getString(1));
+            }
+        }
+        return String.join("\n", lines);
+    }
+}
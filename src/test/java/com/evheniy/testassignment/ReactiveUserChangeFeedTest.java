@@ -0,0 +1,74 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserChangesDto;
+import com.evheniy.testassignment.dto.UserEventDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.model.UserEventType;
+import com.evheniy.testassignment.service.ReactiveUserService;
+import com.evheniy.testassignment.service.UserChangeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+public class ReactiveUserChangeFeedTest {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private UserChangeService userChangeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void reactiveWrites_recordEventsAndSkipNoOpUpdates() throws Exception {
+        String since = latestOffset();
+
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail("reactive-feed-" + UUID.randomUUID() + "@example.com");
+        userDto.setFirstName("Feed");
+        userDto.setLastName("User");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        Long userId = userService.createUser(userDto).block().getId();
+
+        UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
+        fieldsDto.setFirstName("Changed");
+        userService.updateUserFields(userId, fieldsDto).block();
+        assertEquals("Changed", userService.updateUserFields(userId, fieldsDto).block().getFirstName());
+        userDto.setFirstName("Changed");
+        userService.updateUser(userId, userDto).block();
+        userService.removeUser(userId).block();
+
+        List<UserEventDto> events = userChangeService.findChanges(since, null).getEvents().stream()
+                .filter(event -> userId.equals(event.getUserId()))
+                .toList();
+
+        assertEquals(List.of(UserEventType.CREATED, UserEventType.UPDATED, UserEventType.DELETED),
+                events.stream().map(UserEventDto::getType).toList());
+        assertEquals("1990-01-01", objectMapper.readTree(events.get(0).getUser()).get("birthDate").asText());
+        assertEquals("Changed", objectMapper.readTree(events.get(1).getUser()).get("firstName").asText());
+        assertNull(events.get(2).getUser());
+    }
+
+    private String latestOffset() {
+        String offset = null;
+        UserChangesDto changes;
+        do {
+            changes = userChangeService.findChanges(offset, 5000);
+            offset = changes.getNextOffset();
+        } while (!changes.getEvents().isEmpty());
+        return offset;
+    }
+}
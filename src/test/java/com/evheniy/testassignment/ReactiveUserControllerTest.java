@@ -0,0 +1,115 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.controller.ReactiveUserController;
+import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.exception.EmailAlreadyExistsException;
+import com.evheniy.testassignment.exception.GlobalExceptionHandler;
+import com.evheniy.testassignment.service.ReactiveUserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveUserControllerTest {
+
+    @Mock
+    private ReactiveUserService userService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(new ReactiveUserController(userService))
+                .controllerAdvice(new GlobalExceptionHandler(new SimpleMeterRegistry()))
+                .build();
+    }
+
+    @Test
+    void createUser() {
+        UserResponseDto userResponseDto = new UserResponseDto(1L, "test@example.com", "John", "Doe", LocalDate.of(1990, 1, 1));
+        when(userService.createUser(any(UserRequestDto.class))).thenReturn(Mono.just(userResponseDto));
+
+        webTestClient.post().uri("/api/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userRequest("test@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.birthDate").isEqualTo("1990-01-01");
+    }
+
+    @Test
+    void createUser_invalidPayload_returnsBadRequest() {
+        webTestClient.post().uri("/api/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userRequest("not-an-email"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$[0]").isEqualTo("email: Invalid email format");
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void createUser_duplicateEmail_returnsConflict() {
+        when(userService.createUser(any(UserRequestDto.class)))
+                .thenReturn(Mono.error(new EmailAlreadyExistsException("This email already exists: test@example.com")));
+
+        webTestClient.post().uri("/api/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userRequest("test@example.com"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody(String.class).isEqualTo("This email already exists: test@example.com");
+    }
+
+    @Test
+    void removeUser() {
+        when(userService.removeUser(1L)).thenReturn(Mono.empty());
+
+        webTestClient.delete().uri("/api/user/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("User was deleted successfully");
+    }
+
+    @Test
+    void searchUsers_streamsNdjson() {
+        when(userService.findUsersByBirthDateRange(any(UserDateRangeDto.class))).thenReturn(Flux.just(
+                new UserResponseDto(1L, "a@example.com", "A", "A", LocalDate.of(1990, 1, 1)),
+                new UserResponseDto(2L, "b@example.com", "B", "B", LocalDate.of(1991, 1, 1))));
+
+        webTestClient.post().uri("/api/user/_search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(new UserDateRangeDto(LocalDate.of(1980, 1, 1), LocalDate.of(2000, 1, 1)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UserResponseDto.class).hasSize(2);
+    }
+
+    private static UserRequestDto userRequest(String email) {
+        UserRequestDto userRequestDto = new UserRequestDto();
+        userRequestDto.setEmail(email);
+        userRequestDto.setFirstName("John");
+        userRequestDto.setLastName("Doe");
+        userRequestDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userRequestDto;
+    }
+}
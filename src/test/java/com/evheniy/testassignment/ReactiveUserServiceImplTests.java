@@ -0,0 +1,167 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.exception.EmailAlreadyExistsException;
+import com.evheniy.testassignment.exception.InvalidDateRangeException;
+import com.evheniy.testassignment.exception.UserLowAgeException;
+import com.evheniy.testassignment.exception.UserNotFoundException;
+import com.evheniy.testassignment.repository.ReactiveUserRepository;
+import com.evheniy.testassignment.service.ReactiveUserServiceImpl;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveUserServiceImplTests {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @InjectMocks
+    private ReactiveUserServiceImpl userService;
+
+    private UserRequestDto userRequestDto;
+    private UserResponseDto userResponseDto;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "minAge", 18);
+
+        userRequestDto = new UserRequestDto();
+        userRequestDto.setEmail("test@example.com");
+        userRequestDto.setFirstName("John");
+        userRequestDto.setLastName("Doe");
+        userRequestDto.setBirthDate(LocalDate.of(1990, 1, 1));
+
+        userResponseDto = new UserResponseDto(1L, "test@example.com", "John", "Doe", LocalDate.of(1990, 1, 1));
+    }
+
+    @Test
+    void createUser_success() {
+        when(userRepository.insert(userRequestDto)).thenReturn(Mono.just(userResponseDto));
+
+        StepVerifier.create(userService.createUser(userRequestDto))
+                .expectNext(userResponseDto)
+                .verifyComplete();
+    }
+
+    @Test
+    void createUser_tooYoung_failsWithoutTouchingRepository() {
+        userRequestDto.setBirthDate(LocalDate.now().minusYears(17));
+
+        StepVerifier.create(userService.createUser(userRequestDto))
+                .expectError(UserLowAgeException.class)
+                .verify();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void createUser_uniqueViolation_mapsToEmailAlreadyExists() {
+        when(userRepository.insert(userRequestDto)).thenReturn(Mono.error(uniqueViolation()));
+
+        StepVerifier.create(userService.createUser(userRequestDto))
+                .expectErrorSatisfies(e -> {
+                    assertInstanceOf(EmailAlreadyExistsException.class, e);
+                    assertEquals("This email already exists: test@example.com", e.getMessage());
+                })
+                .verify();
+    }
+
+    @Test
+    void createUser_otherIntegrityViolation_propagates() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not null",
+                new R2dbcDataIntegrityViolationException("null value", "23502"));
+        when(userRepository.insert(userRequestDto)).thenReturn(Mono.error(violation));
+
+        StepVerifier.create(userService.createUser(userRequestDto))
+                .expectErrorMatches(e -> e == violation)
+                .verify();
+    }
+
+    @Test
+    void updateUser_notFound() {
+        when(userRepository.update(eq(1L), any(UserRequestDto.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.updateUser(1L, userRequestDto))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void updateUserFields_uniqueViolation_mapsToEmailAlreadyExists() {
+        UserUpdateFieldsDto userDto = new UserUpdateFieldsDto();
+        userDto.setEmail("taken@example.com");
+        when(userRepository.updateFields(1L, userDto)).thenReturn(Mono.error(uniqueViolation()));
+
+        StepVerifier.create(userService.updateUserFields(1L, userDto))
+                .expectError(EmailAlreadyExistsException.class)
+                .verify();
+    }
+
+    @Test
+    void removeUser_success() {
+        when(userRepository.deleteById(1L)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(userService.removeUser(1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void removeUser_notFound() {
+        when(userRepository.deleteById(1L)).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(userService.removeUser(1L))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void findUsersByBirthDateRange_streamsWithBackpressure() {
+        LocalDate start = LocalDate.of(1980, 1, 1);
+        LocalDate end = LocalDate.of(2000, 1, 1);
+        UserResponseDto second = new UserResponseDto(2L, "second@example.com", "Jane", "Doe", LocalDate.of(1995, 1, 1));
+        when(userRepository.findByBirthDateBetween(start, end)).thenReturn(Flux.just(userResponseDto, second));
+
+        StepVerifier.create(userService.findUsersByBirthDateRange(new UserDateRangeDto(start, end)), 1)
+                .expectNext(userResponseDto)
+                .thenRequest(1)
+                .expectNext(second)
+                .verifyComplete();
+    }
+
+    @Test
+    void findUsersByBirthDateRange_invalidRange() {
+        UserDateRangeDto dateRangeDto = new UserDateRangeDto(LocalDate.of(2000, 1, 1), LocalDate.of(1980, 1, 1));
+
+        StepVerifier.create(userService.findUsersByBirthDateRange(dateRangeDto))
+                .expectError(InvalidDateRangeException.class)
+                .verify();
+        verifyNoInteractions(userRepository);
+    }
+
+    private static DataIntegrityViolationException uniqueViolation() {
+        return new DuplicateKeyException("duplicate key",
+                new R2dbcDataIntegrityViolationException(
+                        "duplicate key value violates unique constraint \"idx_users_email_lower\"", "23505"));
+    }
+}
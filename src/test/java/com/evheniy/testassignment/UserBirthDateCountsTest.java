@@ -0,0 +1,64 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserAggregationGroup;
+import com.evheniy.testassignment.dto.UserCountDto;
+import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserBirthDateCountsTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1901, 3, 14);
+    private static final LocalDate OTHER_BIRTH_DATE = LocalDate.of(1901, 7, 1);
+    private static final UserDateRangeDto RANGE = new UserDateRangeDto(LocalDate.of(1901, 1, 1), LocalDate.of(1901, 12, 31));
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void countUsersByBirthDateRange_followsCreateUpdateAndDelete() {
+        long before = countForMonth(3);
+
+        Long first = createUser();
+        Long second = createUser();
+        assertEquals(before + 2, countForMonth(3));
+
+        UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
+        fieldsDto.setBirthDate(OTHER_BIRTH_DATE);
+        userService.updateUserFields(second, fieldsDto, null);
+        assertEquals(before + 1, countForMonth(3));
+        assertTrue(countForMonth(7) >= 1);
+
+        userService.removeUser(first, null);
+        userService.removeUser(second, null);
+        assertEquals(before, countForMonth(3));
+    }
+
+    private Long createUser() {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail("cohort-" + UUID.randomUUID() + "@example.com");
+        userDto.setFirstName("Cohort");
+        userDto.setLastName("User");
+        userDto.setBirthDate(BIRTH_DATE);
+        return userService.createUser(userDto).getId();
+    }
+
+    private long countForMonth(int month) {
+        List<UserCountDto> counts = userService.countUsersByBirthDateRange(RANGE, UserAggregationGroup.BIRTH_MONTH, null);
+        return counts.stream()
+                .filter(count -> count.getBucket() == month)
+                .mapToLong(UserCountDto::getCount)
+                .sum();
+    }
+}
@@ -0,0 +1,237 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.config.CacheConfig;
+import com.evheniy.testassignment.dto.BulkItemStatus;
+import com.evheniy.testassignment.dto.BulkResultDto;
+import com.evheniy.testassignment.dto.BulkUserUpdateDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.mapper.UserMapper;
+import com.evheniy.testassignment.mapper.UserMapperImpl;
+import com.evheniy.testassignment.model.User;
+import com.evheniy.testassignment.repository.UserRepository;
+import com.evheniy.testassignment.service.UserBulkServiceImpl;
+import com.evheniy.testassignment.service.UserChangeService;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserBulkServiceImplTests {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private UserMapper userMapper = new UserMapperImpl();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.USERS_CACHE);
+
+    @Mock
+    private UserChangeService userChangeService;
+
+    @InjectMocks
+    private UserBulkServiceImpl userBulkService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userBulkService, "minAge", 18);
+        ReflectionTestUtils.setField(userBulkService, "chunkSize", 2);
+
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> action = invocation.getArgument(0);
+            return action.doInTransaction(null);
+        });
+        lenient().when(userRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(ids.incrementAndGet()));
+            return users;
+        });
+    }
+
+    @Test
+    void createUsers_mixedRecords_reportsResultPerRecordInInputOrder() {
+        when(userRepository.findExistingEmails(anySet()))
+                .thenReturn(Set.of("taken@example.com"), Set.of("first@example.com"));
+
+        BulkResultDto result = userBulkService.createUsers(List.of(
+                user("first@example.com", LocalDate.of(1990, 1, 1)),
+                user("taken@example.com", LocalDate.of(1990, 1, 1)),
+                user("young@example.com", LocalDate.now().minusYears(1)),
+                user("not-an-email", LocalDate.of(1990, 1, 1)),
+                user("first@example.com", LocalDate.of(1990, 1, 1)),
+                user("second@example.com", LocalDate.of(1990, 1, 1))
+        ).iterator());
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(BulkItemStatus.CREATED, BulkItemStatus.DUPLICATE, BulkItemStatus.INVALID,
+                        BulkItemStatus.INVALID, BulkItemStatus.DUPLICATE, BulkItemStatus.CREATED),
+                result.getItems().stream().map(item -> item.getStatus()).toList());
+        assertNotNull(result.getItems().get(0).getId());
+        verify(userRepository, times(2)).findExistingEmails(anySet());
+    }
+
+    @Test
+    void createUsers_nullRecord_isReportedInvalidAtItsIndex() {
+        when(userRepository.findExistingEmails(anySet())).thenReturn(Set.of());
+
+        BulkResultDto result = userBulkService.createUsers(Arrays.asList(
+                user("first@example.com", LocalDate.of(1990, 1, 1)),
+                null,
+                user("second@example.com", LocalDate.of(1990, 1, 1))
+        ).iterator());
+
+        assertEquals(List.of(BulkItemStatus.CREATED, BulkItemStatus.INVALID, BulkItemStatus.CREATED),
+                result.getItems().stream().map(item -> item.getStatus()).toList());
+        assertEquals(1, result.getItems().get(1).getIndex());
+        assertEquals("Item must not be null", result.getItems().get(1).getMessage());
+    }
+
+    @Test
+    void updateUsers_nullRecord_isReportedInvalidAtItsIndex() {
+        BulkResultDto result = userBulkService.updateUsers(Collections.<BulkUserUpdateDto>singletonList(null).iterator());
+
+        assertEquals(1, result.getFailed());
+        assertEquals(BulkItemStatus.INVALID, result.getItems().get(0).getStatus());
+        assertNull(result.getItems().get(0).getId());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void createUsers_chunkHitsUniqueViolation_fallsBackToSingleInserts() {
+        when(userRepository.findExistingEmails(anySet())).thenReturn(Set.of());
+        when(userRepository.saveAllAndFlush(anyList())).thenThrow(uniqueViolation());
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(uniqueViolation());
+
+        BulkResultDto result = userBulkService.createUsers(List.of(
+                user("first@example.com", LocalDate.of(1990, 1, 1)),
+                user("second@example.com", LocalDate.of(1990, 1, 1))
+        ).iterator());
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(BulkItemStatus.DUPLICATE, result.getItems().get(1).getStatus());
+    }
+
+    @Test
+    void updateUsers_mixedRecords_loadsEachChunkOnceAndReportsResultPerId() {
+        User first = existingUser(1L, "first@example.com");
+        User second = existingUser(2L, "second@example.com");
+        when(userRepository.findAllById(anySet())).thenReturn(List.of(first), List.of(second));
+        when(userRepository.findExistingEmails(anySet())).thenReturn(Set.of("taken@example.com"));
+        cacheManager.getCache(CacheConfig.USERS_CACHE).put(1L, "stale");
+
+        BulkResultDto result = userBulkService.updateUsers(List.of(
+                update(1L, fields("Renamed", null)),
+                update(3L, fields("Missing", null)),
+                update(null, fields("NoId", null)),
+                update(2L, fields(null, "taken@example.com"))
+        ).iterator());
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(BulkItemStatus.UPDATED, BulkItemStatus.NOT_FOUND, BulkItemStatus.INVALID,
+                        BulkItemStatus.DUPLICATE),
+                result.getItems().stream().map(item -> item.getStatus()).toList());
+        assertEquals("Renamed", first.getFirstName());
+        assertEquals("second@example.com", second.getEmail());
+        assertNull(cacheManager.getCache(CacheConfig.USERS_CACHE).get(1L));
+        verify(userRepository, times(2)).findAllById(anySet());
+        verify(userRepository, times(2)).flush();
+    }
+
+    @Test
+    void updateUsers_chunkHitsUniqueViolation_fallsBackToSingleUpdates() {
+        when(userRepository.findAllById(anySet())).thenAnswer(invocation -> {
+            Set<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> existingUser(id, "user" + id + "@example.com")).toList();
+        });
+        when(userRepository.findExistingEmails(anySet())).thenReturn(Set.of());
+        doThrow(uniqueViolation()).doNothing().doThrow(uniqueViolation()).when(userRepository).flush();
+
+        BulkResultDto result = userBulkService.updateUsers(List.of(
+                update(1L, fields(null, "same@example.com")),
+                update(2L, fields(null, "same@example.com"))
+        ).iterator());
+
+        assertEquals(List.of(BulkItemStatus.UPDATED, BulkItemStatus.DUPLICATE),
+                result.getItems().stream().map(item -> item.getStatus()).toList());
+        assertEquals(2L, result.getItems().get(1).getId());
+    }
+
+    private DataIntegrityViolationException uniqueViolation() {
+        return new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint \"user_emails_pkey\"", "23505"));
+    }
+
+    private User existingUser(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private BulkUserUpdateDto update(Long id, UserUpdateFieldsDto fields) {
+        return new BulkUserUpdateDto(id, fields);
+    }
+
+    private UserUpdateFieldsDto fields(String firstName, String email) {
+        UserUpdateFieldsDto fields = new UserUpdateFieldsDto();
+        fields.setFirstName(firstName);
+        fields.setEmail(email);
+        return fields;
+    }
+
+    private UserRequestDto user(String email, LocalDate birthDate) {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail(email);
+        userDto.setFirstName("First");
+        userDto.setLastName("Last");
+        userDto.setBirthDate(birthDate);
+        return userDto;
+    }
+}
@@ -0,0 +1,72 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.config.CacheConfig;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail("cache-" + UUID.randomUUID() + "@example.com");
+        userDto.setFirstName("Cached");
+        userDto.setLastName("User");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        userId = userService.createUser(userDto).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.removeUser(userId, null);
+    }
+
+    @Test
+    void getUser_repeatedReads_areServedFromCacheUntilUpdate() {
+        CacheStats before = nativeCache().stats();
+
+        userService.getUser(userId);
+        userService.getUser(userId);
+
+        CacheStats afterReads = nativeCache().stats().minus(before);
+        assertEquals(1, afterReads.missCount());
+        assertEquals(1, afterReads.hitCount());
+
+        UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
+        fieldsDto.setFirstName("Renamed");
+        userService.updateUserFields(userId, fieldsDto, null);
+
+        assertEquals("Renamed", userService.getUser(userId).getFirstName());
+        assertEquals(2, nativeCache().stats().minus(before).missCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache() {
+        TransactionAwareCacheDecorator cache = (TransactionAwareCacheDecorator) cacheManager.getCache(CacheConfig.USERS_CACHE);
+        return (Cache<Object, Object>) cache.getTargetCache().getNativeCache();
+    }
+}
@@ -0,0 +1,75 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserChangesDto;
+import com.evheniy.testassignment.dto.UserEventDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.exception.InvalidChangeOffsetException;
+import com.evheniy.testassignment.model.UserEventType;
+import com.evheniy.testassignment.service.UserChangeService;
+import com.evheniy.testassignment.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserChangeFeedTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserChangeService userChangeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void findChanges_afterLatestOffset_returnsMutationsInCommitOrder() throws Exception {
+        String since = latestOffset();
+
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail("feed-" + UUID.randomUUID() + "@example.com");
+        userDto.setFirstName("Feed");
+        userDto.setLastName("User");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        Long userId = userService.createUser(userDto).getId();
+
+        UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
+        fieldsDto.setFirstName("Changed");
+        userService.updateUserFields(userId, fieldsDto, null);
+        userService.updateUserFields(userId, fieldsDto, null);
+        userService.removeUser(userId, null);
+
+        List<UserEventDto> events = userChangeService.findChanges(since, null).getEvents().stream()
+                .filter(event -> userId.equals(event.getUserId()))
+                .toList();
+
+        assertEquals(List.of(UserEventType.CREATED, UserEventType.UPDATED, UserEventType.DELETED),
+                events.stream().map(UserEventDto::getType).toList());
+        assertEquals("Changed", objectMapper.readTree(events.get(1).getUser()).get("firstName").asText());
+        assertNull(events.get(2).getUser());
+    }
+
+    @Test
+    void findChanges_malformedOffset_throwsInvalidChangeOffsetException() {
+        assertThrows(InvalidChangeOffsetException.class, () -> userChangeService.findChanges("abc", null));
+    }
+
+    private String latestOffset() {
+        String offset = null;
+        UserChangesDto changes;
+        do {
+            changes = userChangeService.findChanges(offset, 5000);
+            offset = changes.getNextOffset();
+        } while (!changes.getEvents().isEmpty());
+        return offset;
+    }
+}
@@ -1,33 +1,67 @@
 package com.evheniy.testassignment;
 
 import com.evheniy.testassignment.controller.UserController;
+import com.evheniy.testassignment.dto.BulkItemResultDto;
+import com.evheniy.testassignment.dto.BulkItemStatus;
+import com.evheniy.testassignment.dto.BulkResultDto;
+import com.evheniy.testassignment.dto.BulkUserUpdateDto;
+import com.evheniy.testassignment.dto.UserAggregationGroup;
+import com.evheniy.testassignment.dto.UserAsyncUpdateDto;
+import com.evheniy.testassignment.dto.UserAsyncUpdateStatus;
+import com.evheniy.testassignment.dto.UserChangesDto;
+import com.evheniy.testassignment.dto.UserCountDto;
 import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserFilterDto;
+import com.evheniy.testassignment.dto.UserFilterOperator;
+import com.evheniy.testassignment.dto.UserEventDto;
+import com.evheniy.testassignment.dto.UserPageResponseDto;
 import com.evheniy.testassignment.dto.UserRequestDto;
 import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserSearchDto;
+import com.evheniy.testassignment.dto.UserSearchField;
+import com.evheniy.testassignment.dto.UserSortDto;
+import com.evheniy.testassignment.dto.UserTextSearchDto;
 import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.model.UserEventType;
+import com.evheniy.testassignment.service.UserBulkService;
+import com.evheniy.testassignment.service.UserChangeService;
+import com.evheniy.testassignment.service.UserSearchVersion;
 import com.evheniy.testassignment.service.UserService;
+import com.evheniy.testassignment.service.UserWriteBehindService;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.mockito.BDDMockito.*;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
@@ -38,6 +72,21 @@ public class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserBulkService userBulkService;
+
+    @Mock
+    private UserChangeService userChangeService;
+
+    @Mock
+    private UserWriteBehindService userWriteBehindService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Spy
+    private MappingJackson2CborHttpMessageConverter cborConverter = new MappingJackson2CborHttpMessageConverter();
+
     @InjectMocks
     private UserController userController;
 
@@ -63,6 +112,53 @@ public class UserControllerTest {
         mapper = new ObjectMapper().registerModule(new JavaTimeModule());
     }
 
+    @Test
+    void getUser_ShouldReturnUser() throws Exception {
+        given(userService.getUser(1L)).willReturn(userResponseDto);
+
+        mockMvc.perform(get("/api/user/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(userDto.getEmail()));
+    }
+
+    @Test
+    void getUser_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        userResponseDto.setVersion(4L);
+        given(userService.getUser(1L)).willReturn(userResponseDto);
+
+        mockMvc.perform(get("/api/user/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        mockMvc.perform(get("/api/user/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getUserByEmail_ShouldReturnUser() throws Exception {
+        userResponseDto.setVersion(2L);
+        given(userService.getUserByEmail("Test@Example.com")).willReturn(userResponseDto);
+
+        mockMvc.perform(get("/api/user/by-email").param("email", "Test@Example.com"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.email").value(userDto.getEmail()));
+    }
+
+    @Test
+    void createUser_WithMixedCaseEmail_ShouldPassNormalizedEmail() throws Exception {
+        given(userService.createUser(any(UserRequestDto.class))).willReturn(userResponseDto);
+
+        mockMvc.perform(post("/api/user")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(userDto).replace("test@example.com", " Test@Example.COM ")))
+                .andExpect(status().isCreated());
+
+        verify(userService).createUser(argThat(user -> "test@example.com".equals(user.getEmail())));
+    }
+
     @Test
     void createUser_ShouldReturnCreatedUser() throws Exception {
 
@@ -77,10 +173,65 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.lastName").value(userDto.getLastName()));
     }
 
+    @Test
+    void createUsers_WithNdjsonBody_ShouldPassEveryRecordToBulkService() throws Exception {
+        List<String> emails = new ArrayList<>();
+        given(userBulkService.createUsers(any())).willAnswer(invocation -> {
+            Iterator<UserRequestDto> users = invocation.getArgument(0);
+            BulkResultDto result = new BulkResultDto();
+            while (users.hasNext()) {
+                UserRequestDto user = users.next();
+                emails.add(user.getEmail());
+                result.add(new BulkItemResultDto(emails.size() - 1, (long) emails.size(), BulkItemStatus.CREATED, null));
+            }
+            return result;
+        });
+
+        String line = mapper.writeValueAsString(userDto);
+        mockMvc.perform(post("/api/user/_bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(line + "\n" + line + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.items", hasSize(2)));
+
+        mockMvc.perform(post("/api/user/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + line + "," + line + "," + line + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(3));
+
+        assertEquals(5, emails.size());
+    }
+
+    @Test
+    void updateUsers_WithNdjsonBody_ShouldPassEveryUpdateToBulkService() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        given(userBulkService.updateUsers(any())).willAnswer(invocation -> {
+            Iterator<BulkUserUpdateDto> updates = invocation.getArgument(0);
+            BulkResultDto result = new BulkResultDto();
+            while (updates.hasNext()) {
+                BulkUserUpdateDto update = updates.next();
+                ids.add(update.getId());
+                result.add(new BulkItemResultDto(ids.size() - 1, update.getId(), BulkItemStatus.UPDATED, null));
+            }
+            return result;
+        });
+
+        mockMvc.perform(patch("/api/user/_bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"id\":1,\"fields\":{\"firstName\":\"A\"}}\n{\"id\":2,\"fields\":{\"lastName\":\"B\"}}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.items[1].status").value("UPDATED"));
+
+        assertEquals(List.of(1L, 2L), ids);
+    }
+
     @Test
     void updateUser_ShouldReturnUpdatedUser() throws Exception {
 
-        given(userService.updateUser(anyLong(), any(UserRequestDto.class))).willReturn(userResponseDto);
+        given(userService.updateUser(anyLong(), any(UserRequestDto.class), any())).willReturn(userResponseDto);
 
         mockMvc.perform(put("/api/user/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -95,7 +246,7 @@ public class UserControllerTest {
     void updateUserFields_ShouldReturnUpdatedUser() throws Exception {
         UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
         UserResponseDto userResponseDto = new UserResponseDto();
-        given(userService.updateUserFields(anyLong(), any(UserUpdateFieldsDto.class))).willReturn(userResponseDto);
+        given(userService.updateUserFields(anyLong(), any(UserUpdateFieldsDto.class), any())).willReturn(userResponseDto);
 
         mockMvc.perform(patch("/api/user/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -103,9 +254,91 @@ public class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void updateUserFields_WithIfMatch_ShouldPassExpectedVersion() throws Exception {
+        userResponseDto.setVersion(8L);
+        given(userService.updateUserFields(eq(1L), any(UserUpdateFieldsDto.class), eq(7L))).willReturn(userResponseDto);
+
+        mockMvc.perform(patch("/api/user/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"New\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""));
+    }
+
+    @Test
+    void updateUserFields_WithPreferRespondAsync_ShouldReturnAccepted() throws Exception {
+        given(userWriteBehindService.enqueue(eq(1L), any(UserUpdateFieldsDto.class)))
+                .willReturn(new UserAsyncUpdateDto("tracking-1", 1L, UserAsyncUpdateStatus.QUEUED, null));
+
+        mockMvc.perform(patch("/api/user/{id}", 1L)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"New\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/user/_async/tracking-1"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+        verify(userService, never()).updateUserFields(any(), any(), any());
+    }
+
+    @Test
+    void updateUserFields_WithCombinedPreferences_ShouldReturnAccepted() throws Exception {
+        given(userWriteBehindService.enqueue(eq(1L), any(UserUpdateFieldsDto.class)))
+                .willReturn(new UserAsyncUpdateDto("tracking-2", 1L, UserAsyncUpdateStatus.QUEUED, null));
+
+        mockMvc.perform(patch("/api/user/{id}", 1L)
+                        .header("Prefer", "return=minimal, Respond-Async; foo=bar, wait=5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"New\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"));
+        verify(userService, never()).updateUserFields(any(), any(), any());
+    }
+
+    @Test
+    void updateUserFields_WithOtherPreferenceOnly_ShouldUpdateSynchronously() throws Exception {
+        userResponseDto.setVersion(2L);
+        given(userService.updateUserFields(eq(1L), any(UserUpdateFieldsDto.class), isNull())).willReturn(userResponseDto);
+
+        mockMvc.perform(patch("/api/user/{id}", 1L)
+                        .header("Prefer", "return=representation, respond-async-later")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"New\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Preference-Applied"));
+        verify(userWriteBehindService, never()).enqueue(any(), any());
+    }
+
+    @Test
+    void updateUserFields_WithPreferRespondAsyncAndIfMatch_ShouldUpdateSynchronously() throws Exception {
+        userResponseDto.setVersion(8L);
+        given(userService.updateUserFields(eq(1L), any(UserUpdateFieldsDto.class), eq(7L))).willReturn(userResponseDto);
+
+        mockMvc.perform(patch("/api/user/{id}", 1L)
+                        .header("Prefer", "respond-async")
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"New\"}"))
+                .andExpect(status().isOk());
+        verify(userWriteBehindService, never()).enqueue(any(), any());
+    }
+
+    @Test
+    void getAsyncUpdate_ShouldReturnStatus() throws Exception {
+        given(userWriteBehindService.getStatus("tracking-1"))
+                .willReturn(new UserAsyncUpdateDto("tracking-1", 1L, UserAsyncUpdateStatus.UPDATED, null));
+
+        mockMvc.perform(get("/api/user/_async/{trackingId}", "tracking-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.status").value("UPDATED"));
+    }
+
     @Test
     void removeUser_ShouldReturnSuccessMessage() throws Exception {
-        doNothing().when(userService).removeUser(anyLong());
+        doNothing().when(userService).removeUser(anyLong(), any());
 
         mockMvc.perform(delete("/api/user/{id}", 1L))
                 .andExpect(status().isOk())
@@ -120,7 +353,7 @@ public class UserControllerTest {
         userDateRangeDto.setEndDate(LocalDate.of(2020, 12, 31));
 
         List<UserResponseDto> users = Arrays.asList(new UserResponseDto(), new UserResponseDto());
-        given(userService.findUsersByBirthDateRange(any(UserDateRangeDto.class))).willReturn(users);
+        given(userService.findUsers(any(UserSearchDto.class))).willReturn(users);
 
         mockMvc.perform(post("/api/user/_search")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -129,6 +362,268 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$", hasSize(users.size())));
     }
 
+    @Test
+    void getUsersByBirthDateRange_WithMatchingIfNoneMatch_ShouldSkipSearch() throws Exception {
+        UserDateRangeDto userDateRangeDto = new UserDateRangeDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        given(userService.getSearchVersion(any(UserDateRangeDto.class))).willReturn("2-5-1e");
+
+        mockMvc.perform(post("/api/user/_search")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2-5-1e\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2-5-1e\""));
+
+        verify(userService, never()).findUsers(any(UserSearchDto.class));
+    }
+
+    @Test
+    void getUsersByBirthDateRange_WithoutIfNoneMatch_ShouldDeriveETagFromRows() throws Exception {
+        UserDateRangeDto userDateRangeDto = new UserDateRangeDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        List<UserResponseDto> users = List.of(new UserResponseDto(1L, "a@example.com", "A", "A", LocalDate.of(2020, 1, 1), 2L));
+        given(userService.findUsers(any(UserSearchDto.class))).willReturn(users);
+
+        mockMvc.perform(post("/api/user/_search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + UserSearchVersion.of(users) + "\""));
+
+        verify(userService, never()).getSearchVersion(any(UserDateRangeDto.class));
+    }
+
+    @Test
+    void getUsersByBirthDateRange_WithFilters_ShouldPassCriteriaAndVaryETag() throws Exception {
+        UserSearchDto searchDto = new UserSearchDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        searchDto.getFilters().add(new UserFilterDto(UserSearchField.LAST_NAME, UserFilterOperator.PREFIX, "Z"));
+        searchDto.getFields().add(UserSearchField.EMAIL);
+        given(userService.getSearchVersion(any(UserDateRangeDto.class))).willReturn("2-5-1e");
+        given(userService.findUsers(searchDto)).willReturn(List.of(new UserResponseDto(null, "z@example.com", null, null, null)));
+
+        mockMvc.perform(post("/api/user/_search")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"2-5-1e\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(searchDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not("W/\"2-5-1e\"")))
+                .andExpect(jsonPath("$[0].email").value("z@example.com"))
+                .andExpect(jsonPath("$[0].firstName").doesNotExist());
+    }
+
+    @Test
+    void getUsersByBirthDateRange_WithNullCriteria_ShouldSearchWholeRange() throws Exception {
+        given(userService.findUsers(any(UserSearchDto.class))).willReturn(List.of(userResponseDto));
+
+        mockMvc.perform(post("/api/user/_search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startDate\":\"2020-01-01\",\"endDate\":\"2020-12-31\"," +
+                                "\"filters\":null,\"sort\":null,\"fields\":null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$[0].email").value(userDto.getEmail()));
+    }
+
+    @Test
+    void getUsersByBirthDateRange_WithNullFilter_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/user/_search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startDate\":\"2020-01-01\",\"endDate\":\"2020-12-31\",\"filters\":[null]}"))
+                .andExpect(status().isBadRequest());
+        verify(userService, never()).findUsers(any(UserSearchDto.class));
+    }
+
+    @Test
+    void getUsersByBirthDateRange_WithDifferentSort_ShouldNotMatchOtherShapesETag() throws Exception {
+        UserSearchDto ascending = new UserSearchDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        ascending.getSort().add(new UserSortDto(UserSearchField.LAST_NAME, Sort.Direction.ASC));
+        UserSearchDto descending = new UserSearchDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        descending.getSort().add(new UserSortDto(UserSearchField.LAST_NAME, Sort.Direction.DESC));
+        given(userService.getSearchVersion(any(UserDateRangeDto.class))).willReturn("2-5-1e");
+        given(userService.findUsers(any(UserSearchDto.class))).willReturn(List.of(userResponseDto));
+
+        String eTag = mockMvc.perform(post("/api/user/_search")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"2-5-1e\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(ascending)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/user/_search")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(descending)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+        mockMvc.perform(post("/api/user/_search")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(ascending)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void streamUsersByBirthDateRange_ShouldReturnNdjsonLines() throws Exception {
+        UserDateRangeDto userDateRangeDto = new UserDateRangeDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+
+        willAnswer(invocation -> {
+            Consumer<UserResponseDto> consumer = invocation.getArgument(1);
+            consumer.accept(userResponseDto);
+            consumer.accept(userResponseDto);
+            return null;
+        }).given(userService).streamUsers(any(UserSearchDto.class), any());
+
+        MvcResult result = mockMvc.perform(post("/api/user/_search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(userResponseDto);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + "\n" + line + "\n"));
+    }
+
+    @Test
+    void countUsersByBirthDateRange_ShouldReturnCountsPerBucket() throws Exception {
+        UserDateRangeDto userDateRangeDto = new UserDateRangeDto(LocalDate.of(1980, 1, 1), LocalDate.of(1981, 12, 31));
+        given(userService.countUsersByBirthDateRange(any(UserDateRangeDto.class), eq(UserAggregationGroup.BIRTH_YEAR), isNull()))
+                .willReturn(List.of(new UserCountDto(1980, 3L), new UserCountDto(1981, 5L)));
+
+        mockMvc.perform(post("/api/user/_search/aggregate")
+                        .param("groupBy", "BIRTH_YEAR")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].bucket").value(1981))
+                .andExpect(jsonPath("$[1].count").value(5));
+    }
+
+    @Test
+    void getUsersByBirthDateRange_WithCborAccept_ShouldReturnCborArray() throws Exception {
+        UserDateRangeDto userDateRangeDto = new UserDateRangeDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        given(userService.findUsers(any(UserSearchDto.class))).willReturn(List.of(userResponseDto, userResponseDto));
+
+        byte[] body = mockMvc.perform(post("/api/user/_search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        UserResponseDto[] users = new CBORMapper().readValue(body, UserResponseDto[].class);
+        assertEquals(2, users.length);
+        assertEquals(userDto.getEmail(), users[0].getEmail());
+    }
+
+    @Test
+    void streamUsersByBirthDateRange_WithCborSeqAccept_ShouldStreamCborItems() throws Exception {
+        UserDateRangeDto userDateRangeDto = new UserDateRangeDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        willAnswer(invocation -> {
+            Consumer<UserResponseDto> consumer = invocation.getArgument(1);
+            consumer.accept(userResponseDto);
+            consumer.accept(userResponseDto);
+            return null;
+        }).given(userService).streamUsers(any(UserSearchDto.class), any());
+
+        MvcResult result = mockMvc.perform(post("/api/user/_search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept("application/cbor-seq")
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor-seq"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (MappingIterator<UserResponseDto> users = new CBORMapper().readerFor(UserResponseDto.class).readValues(body)) {
+            assertEquals(2, users.readAll().size());
+        }
+    }
+
+    @Test
+    void getUsersPageByBirthDateRange_ShouldReturnPageWithCursor() throws Exception {
+        UserDateRangeDto userDateRangeDto = new UserDateRangeDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        UserPageResponseDto page = new UserPageResponseDto(List.of(userResponseDto), "next");
+
+        given(userService.findUsersPageByBirthDateRange(any(UserDateRangeDto.class), eq("current"), eq(1))).willReturn(page);
+
+        mockMvc.perform(post("/api/user/_search/page")
+                        .param("cursor", "current")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getUsersPageByBirthDateRange_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        UserDateRangeDto userDateRangeDto = new UserDateRangeDto(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+        UserPageResponseDto page = new UserPageResponseDto(List.of(userResponseDto), "next");
+        given(userService.findUsersPageByBirthDateRange(any(UserDateRangeDto.class), any(), any())).willReturn(page);
+
+        String eTag = mockMvc.perform(post("/api/user/_search/page")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/user/_search/page")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(userDateRangeDto)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        verify(userService, never()).getSearchVersion(any(UserDateRangeDto.class));
+    }
+
+    @Test
+    void searchUsers_ShouldReturnRankedPage() throws Exception {
+        UserPageResponseDto page = new UserPageResponseDto(List.of(userResponseDto), "20");
+
+        given(userService.searchUsers(any(UserTextSearchDto.class), eq(null), eq(20))).willReturn(page);
+
+        mockMvc.perform(post("/api/user/_search/text")
+                        .param("size", "20")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new UserTextSearchDto("jo"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value("20"));
+    }
+
+    @Test
+    void searchUsers_TooShortQuery_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/user/_search/text")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new UserTextSearchDto("j"))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getChanges_ShouldReturnEventsWithRawUserPayload() throws Exception {
+        UserEventDto event = new UserEventDto("42-7", UserEventType.UPDATED, 7L, "{\"id\":7,\"firstName\":\"New\"}", null);
+        given(userChangeService.findChanges("42-3", 10)).willReturn(new UserChangesDto(List.of(event), "42-7"));
+
+        mockMvc.perform(get("/api/user/_changes")
+                        .param("since", "42-3")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events", hasSize(1)))
+                .andExpect(jsonPath("$.events[0].type").value("UPDATED"))
+                .andExpect(jsonPath("$.events[0].user.firstName").value("New"))
+                .andExpect(jsonPath("$.nextOffset").value("42-7"));
+    }
+
     @Test
     void createUser_WithInvalidEmail_ShouldReturnBadRequest() throws Exception {
         UserRequestDto userDto = new UserRequestDto();
@@ -0,0 +1,95 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserFilterDto;
+import com.evheniy.testassignment.dto.UserFilterOperator;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserSearchDto;
+import com.evheniy.testassignment.dto.UserSearchField;
+import com.evheniy.testassignment.dto.UserSortDto;
+import com.evheniy.testassignment.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class UserCriteriaSearchTest {
+
+    private static final LocalDate START = LocalDate.of(1890, 1, 1);
+    private static final LocalDate END = LocalDate.of(1890, 12, 31);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void seedUsers() {
+        jdbcTemplate.update("""
+                INSERT INTO users (email, first_name, last_name, birth_date, phone_number) VALUES
+                    ('criteria-1@example.com', 'Ann', 'Zimmer', DATE '1890-03-01', '111'),
+                    ('criteria-2@example.com', 'Bob', 'Zane', DATE '1890-05-01', NULL),
+                    ('criteria-3@example.com', 'Cid', 'zorn', DATE '1890-07-01', '333'),
+                    ('criteria-4@example.com', 'Dan', 'Adams', DATE '1890-09-01', '444'),
+                    ('criteria-5@example.com', 'Eve', 'Zest_x', DATE '1891-02-01', '555')
+                """);
+    }
+
+    @Test
+    void findUsers_emailFilterWithMixedCase_matchesNormalizedEmail() {
+        UserSearchDto searchDto = new UserSearchDto(START, END);
+        searchDto.getFilters().add(new UserFilterDto(UserSearchField.EMAIL, UserFilterOperator.EQ, " Criteria-2@Example.COM "));
+
+        List<String> emails = userService.findUsers(searchDto).stream().map(UserResponseDto::getEmail).toList();
+
+        assertEquals(List.of("criteria-2@example.com"), emails);
+    }
+
+    @Test
+    void findUsers_prefixAndHasPhone_filtersInDatabase() {
+        UserSearchDto searchDto = new UserSearchDto(START, END);
+        searchDto.getFilters().add(new UserFilterDto(UserSearchField.LAST_NAME, UserFilterOperator.PREFIX, "z"));
+        searchDto.getFilters().add(new UserFilterDto(UserSearchField.PHONE_NUMBER, UserFilterOperator.IS_NOT_NULL, null));
+        searchDto.getSort().add(new UserSortDto(UserSearchField.BIRTH_DATE, Sort.Direction.DESC));
+
+        List<String> emails = userService.findUsers(searchDto).stream().map(UserResponseDto::getEmail).toList();
+
+        assertEquals(List.of("criteria-3@example.com", "criteria-1@example.com"), emails);
+    }
+
+    @Test
+    void findUsers_selectedFields_leavesOtherFieldsEmpty() {
+        UserSearchDto searchDto = new UserSearchDto(START, END);
+        searchDto.getFilters().add(new UserFilterDto(UserSearchField.BIRTH_DATE, UserFilterOperator.GTE, "1890-09-01"));
+        searchDto.getFields().add(UserSearchField.LAST_NAME);
+
+        List<UserResponseDto> users = userService.findUsers(searchDto);
+
+        assertEquals(1, users.size());
+        assertEquals("Adams", users.get(0).getLastName());
+        assertNull(users.get(0).getId());
+        assertNull(users.get(0).getEmail());
+    }
+
+    @Test
+    void streamUsers_prefixWithWildcardCharacters_matchesLiterally() {
+        UserSearchDto searchDto = new UserSearchDto(START, LocalDate.of(1891, 12, 31));
+        searchDto.getFilters().add(new UserFilterDto(UserSearchField.LAST_NAME, UserFilterOperator.PREFIX, "zest_"));
+
+        List<UserResponseDto> users = new ArrayList<>();
+        userService.streamUsers(searchDto, users::add);
+
+        assertEquals(List.of("criteria-5@example.com"), users.stream().map(UserResponseDto::getEmail).toList());
+    }
+}
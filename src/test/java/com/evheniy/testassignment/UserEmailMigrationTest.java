@@ -0,0 +1,107 @@
+package com.evheniy.testassignment;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserEmailMigrationTest {
+
+    private static final String SCHEMA = "email_migration_test";
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.xml";
+    private static final int CHANGESETS_BEFORE_EMAIL_NORMALIZATION = 8;
+    private static final int SEEDED_USERS = 20_000;
+    private static final int DUPLICATES = 1_000;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(url, username, password);
+        execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        execute("CREATE SCHEMA " + SCHEMA);
+        execute("SET search_path TO " + SCHEMA + ", public");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (!connection.getAutoCommit()) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        connection.close();
+    }
+
+    @Test
+    void emailNormalization_onSeededTable_dedupesLowercasesAndIndexesEmails() throws Exception {
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        database.setDefaultSchemaName(SCHEMA);
+        Liquibase liquibase = new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database);
+        liquibase.update(CHANGESETS_BEFORE_EMAIL_NORMALIZATION, new Contexts(), new LabelExpression());
+
+        execute("INSERT INTO users (email, first_name, last_name, birth_date) " +
+                "SELECT 'migration-' || n || '@example.com', 'First', 'Last', DATE '1950-01-01' + (n % 20000) " +
+                "FROM generate_series(1, " + SEEDED_USERS + ") AS n");
+        execute("INSERT INTO users (email, first_name, last_name, birth_date) " +
+                "SELECT CASE WHEN n % 2 = 0 THEN 'MIGRATION-' || n || '@Example.COM' ELSE ' migration-' || n || '@example.com ' END, " +
+                "'Duplicate', 'Last', DATE '1950-01-01' FROM generate_series(1, " + DUPLICATES + ") AS n");
+        execute("UPDATE users SET email = upper(email) WHERE email = 'migration-" + SEEDED_USERS + "@example.com'");
+
+        liquibase.update(new Contexts(), new LabelExpression());
+
+        assertEquals(SEEDED_USERS, count("SELECT count(*) FROM users"));
+        assertEquals(0, count("SELECT count(*) FROM users WHERE email <> lower(trim(email)) OR first_name = 'Duplicate'"));
+        assertEquals(DUPLICATES, count("SELECT count(*) FROM user_events WHERE type = 'DELETED'"));
+        assertEquals(1, count("SELECT count(*) FROM user_events WHERE type = 'UPDATED'"));
+        assertEquals(SEEDED_USERS, count("SELECT sum(user_count) FROM user_birth_date_counts"));
+
+        assertEquals(1, count("SELECT count(*) FROM pg_indexes WHERE schemaname = '" + SCHEMA + "' " +
+                "AND indexname = 'idx_users_email_lower' AND indexdef LIKE '%UNIQUE%lower((email)%'"));
+
+        SQLException duplicate = assertThrows(SQLException.class, () -> execute(
+                "INSERT INTO users (email, first_name, last_name, birth_date) " +
+                        "VALUES ('Migration-42@Example.com', 'First', 'Last', DATE '1990-01-01')"));
+        assertEquals("23505", duplicate.getSQLState());
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql); ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.config.ClientResolver;
+import com.evheniy.testassignment.config.IdempotencyFilter;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.repository.IdempotencyRecord;
+import com.evheniy.testassignment.repository.IdempotencyStore;
+import com.evheniy.testassignment.repository.InMemoryIdempotencyStore;
+import com.evheniy.testassignment.repository.JdbcIdempotencyStore;
+import com.evheniy.testassignment.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserIdempotencyTest {
+
+    private static final ClientResolver CLIENTS = new ClientResolver(ClientResolver.ClientKey.HEADER, "X-Forwarded-For");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void createUser_retriedWithSameKey_replaysOriginalResponseWithoutCallingService() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = objectMapper.writeValueAsString(newUser("idempotent-" + key + "@example.com"));
+
+        MockHttpServletResponse first = mockMvc.perform(post("/api/user")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED))
+                .andReturn().getResponse();
+        createdIds.add(objectMapper.readTree(first.getContentAsString()).get("id").asLong());
+        double creates = meterRegistry.get("user.service").tag("method", "createUser").timer().count();
+
+        MockHttpServletResponse replay = mockMvc.perform(post("/api/user")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"))
+                .andReturn().getResponse();
+
+        assertEquals(first.getContentAsString(), replay.getContentAsString());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, replay.getContentType());
+        assertEquals(creates, meterRegistry.get("user.service").tag("method", "createUser").timer().count());
+    }
+
+    @Test
+    void sameKey_withDifferentRequest_isRejectedWith422() throws Exception {
+        String key = UUID.randomUUID().toString();
+        UserRequestDto userDto = newUser("idempotent-" + key + "@example.com");
+        String created = mockMvc.perform(post("/api/user")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(created).get("id").asLong();
+        createdIds.add(id);
+
+        userDto.setFirstName("Changed");
+        mockMvc.perform(post("/api/user")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(patch("/api/user/{id}", id)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Changed\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void sameKey_whileFirstRequestIsInFlight_isRejectedWith409() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String scopedKey = IdempotencyFilter.scopedKey("127.0.0.1", key);
+        assertNull(idempotencyStore.reserve(scopedKey, new byte[32]));
+        try {
+            mockMvc.perform(post("/api/user")
+                            .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(newUser("in-flight-" + key + "@example.com"))))
+                    .andExpect(status().isConflict());
+        } finally {
+            idempotencyStore.release(scopedKey);
+        }
+    }
+
+    @Test
+    void search_withKey_isNotCached() throws Exception {
+        String key = UUID.randomUUID().toString();
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/user/_search")
+                            .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"startDate\":\"1990-01-01\",\"endDate\":\"1990-01-02\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED));
+        }
+    }
+
+    @Test
+    void sameKey_withDifferentAcceptContentTypeOrPrefer_isRejectedWith422() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(1_000_000, 60_000, 60_000), CLIENTS,
+                1024, 1024,
+                new SimpleMeterRegistry());
+        String key = UUID.randomUUID().toString();
+        assertEquals(HttpStatus.OK.value(), patchThroughFilter(filter, key, Map.of()).getStatus());
+        assertEquals(HttpStatus.OK.value(), patchThroughFilter(filter, key, Map.of()).getStatus());
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), patchThroughFilter(filter, key,
+                Map.of(HttpHeaders.ACCEPT, "application/cbor")).getStatus());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), patchThroughFilter(filter, key,
+                Map.of(HttpHeaders.CONTENT_TYPE, "application/merge-patch+json")).getStatus());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), patchThroughFilter(filter, key,
+                Map.of("Prefer", "respond-async")).getStatus());
+    }
+
+    @Test
+    void sameKey_fromDifferentClients_isExecutedForEachClient() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(1_000_000, 60_000, 60_000), CLIENTS,
+                1024, 1024, new SimpleMeterRegistry());
+        String key = "1";
+        assertNull(patchThroughFilter(filter, key, Map.of("X-Forwarded-For", "10.0.0.1"))
+                .getHeader(IdempotencyFilter.REPLAYED));
+        assertNull(patchThroughFilter(filter, key, Map.of("X-Forwarded-For", "10.0.0.2"))
+                .getHeader(IdempotencyFilter.REPLAYED));
+
+        MockHttpServletResponse otherBody = patchThroughFilter(filter, key,
+                Map.of("X-Forwarded-For", "10.0.0.3", HttpHeaders.ACCEPT, "application/cbor"));
+        assertEquals(HttpStatus.OK.value(), otherBody.getStatus());
+        assertEquals("true", patchThroughFilter(filter, key, Map.of("X-Forwarded-For", "10.0.0.1"))
+                .getHeader(IdempotencyFilter.REPLAYED));
+    }
+
+    @Test
+    void inMemoryStore_abandonedReservation_expiresAfterInFlightTtl() throws Exception {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(1_000_000, 60_000, 1);
+        String key = UUID.randomUUID().toString();
+        byte[] hash = {1, 2, 3};
+        assertNull(store.reserve(key, hash));
+        assertTrue(store.reserve(key, hash).isInFlight());
+
+        Thread.sleep(10);
+        assertNull(store.reserve(key, hash));
+        store.complete(key, new IdempotencyRecord(hash, 200, Map.of(), new byte[0]));
+        Thread.sleep(10);
+        assertEquals(200, store.reserve(key, hash).status());
+    }
+
+    @Test
+    void cachedBody_withReadListener_isReadWithoutBlocking() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(1_000_000, 60_000, 60_000), CLIENTS,
+                1024, 1024, new SimpleMeterRegistry());
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/user/1");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, UUID.randomUUID().toString());
+        request.setContent("{\"firstName\":\"Changed\"}".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> {
+            ServletInputStream input = servletRequest.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    while (input.isReady() && !input.isFinished()) {
+                        read.write(input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+        });
+
+        assertEquals(List.of("data", "done"), events);
+        assertEquals("{\"firstName\":\"Changed\"}", read.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void createUser_withBodyOverLimit_isRejectedWith413BeforeReachingService() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter(new InMemoryIdempotencyStore(1_000_000, 60_000, 60_000), CLIENTS,
+                16, 64,
+                new SimpleMeterRegistry());
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/user");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, UUID.randomUUID().toString());
+        request.setContent("{\"email\":\"too-large@example.com\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void jdbcStore_reservesCompletesAndTakesOverAbandonedKeys() throws Exception {
+        JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, objectMapper, 60_000, 1);
+        String key = UUID.randomUUID().toString();
+        String abandoned = UUID.randomUUID().toString();
+        byte[] hash = {1, 2, 3};
+        try {
+            assertNull(store.reserve(key, hash));
+            assertNull(store.reserve(abandoned, hash));
+            store.complete(key, new IdempotencyRecord(hash, 201, Map.of(HttpHeaders.CONTENT_TYPE, "application/json"),
+                    "{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+
+            IdempotencyRecord stored = store.reserve(key, hash);
+            assertEquals(201, stored.status());
+            assertArrayEquals(hash, stored.requestHash());
+            assertEquals("application/json", stored.headers().get(HttpHeaders.CONTENT_TYPE));
+            assertEquals("{\"id\":1}", new String(stored.body(), StandardCharsets.UTF_8));
+
+            Thread.sleep(10);
+            assertNull(store.reserve(abandoned, hash));
+        } finally {
+            jdbcTemplate.update("delete from idempotency_keys where idempotency_key in (?, ?)", key, abandoned);
+        }
+    }
+
+    private static UserRequestDto newUser(String email) {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail(email);
+        userDto.setFirstName("Retried");
+        userDto.setLastName("Client");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userDto;
+    }
+
+    private static MockHttpServletResponse patchThroughFilter(IdempotencyFilter filter, String key,
+                                                              Map<String, String> headers) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/user/1");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        request.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        headers.forEach((name, value) -> {
+            request.removeHeader(name);
+            request.addHeader(name, value);
+        });
+        request.setContent("{\"firstName\":\"Changed\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,208 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.config.AdaptiveConcurrencyLimiter;
+import com.evheniy.testassignment.config.AdaptiveConcurrencyLimiter.Decision;
+import com.evheniy.testassignment.config.AdaptiveConcurrencyLimiter.Endpoint;
+import com.evheniy.testassignment.config.ClientResolver;
+import com.evheniy.testassignment.config.LoadSheddingFilter;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "user.load-shedding.enabled=true",
+        "user.load-shedding.client-key=header",
+        "user.load-shedding.initial-limit=4",
+        "user.load-shedding.min-limit=4",
+        "user.load-shedding.max-limit=4"
+})
+@AutoConfigureMockMvc
+public class UserLoadSheddingTest {
+
+    private static final String SEARCH_BODY = "{\"startDate\":\"1950-01-01\",\"endDate\":\"2000-12-31\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Runnable> permits = new ArrayList<>();
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        permits.forEach(Runnable::run);
+        userRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void search_whenSearchShareIsUsed_isShedWith503WhileCreateStillSucceeds() throws Exception {
+        hold(Endpoint.SEARCH, "10.0.0.1");
+        hold(Endpoint.SEARCH, "10.0.0.2");
+        double shed = meterRegistry.counter("user.limiter.decisions", "endpoint", "search", "decision", "shed").count();
+
+        mockMvc.perform(post("/api/user/_search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(SEARCH_BODY))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        assertEquals(shed + 1, meterRegistry.counter("user.limiter.decisions", "endpoint", "search", "decision", "shed").count());
+
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail("shedding-" + UUID.randomUUID() + "@example.com");
+        userDto.setFirstName("Reserved");
+        userDto.setLastName("Capacity");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        String created = mockMvc.perform(post("/api/user")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        createdIds.add(objectMapper.readTree(created).get("id").asLong());
+    }
+
+    @Test
+    void read_whenClientHoldsItsShare_isThrottledWith429() throws Exception {
+        hold(Endpoint.READ, "127.0.0.1");
+
+        mockMvc.perform(get("/api/user/{id}", Long.MAX_VALUE))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        mockMvc.perform(get("/api/user/{id}", Long.MAX_VALUE).with(request -> {
+            request.setRemoteAddr("10.0.0.3");
+            return request;
+        })).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void read_whenClientsShareOneProxyAddress_isThrottledPerForwardedClient() throws Exception {
+        hold(Endpoint.READ, "203.0.113.1");
+
+        mockMvc.perform(get("/api/user/{id}", Long.MAX_VALUE)
+                        .header("X-Forwarded-For", "203.0.113.1, 10.0.0.10"))
+                .andExpect(status().isTooManyRequests());
+
+        for (String client : List.of("203.0.113.2", "203.0.113.3", "203.0.113.4")) {
+            mockMvc.perform(get("/api/user/{id}", Long.MAX_VALUE)
+                            .header("X-Forwarded-For", client + ", 10.0.0.10"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void limit_backsOffOnSlowRequestsAndGrowsWhileFastAndBusy() {
+        AdaptiveConcurrencyLimiter aimd = new AdaptiveConcurrencyLimiter(10, 2, 20, 0.5, 100, 1000, 0.5, 0.2, 1.0,
+                new SimpleMeterRegistry());
+
+        assertEquals(Decision.ACCEPTED, aimd.acquire(Endpoint.WRITE, "client"));
+        aimd.release(Endpoint.WRITE, "client", TimeUnit.MILLISECONDS.toNanos(500), false);
+        assertEquals(5, aimd.getLimit());
+
+        assertEquals(Decision.ACCEPTED, aimd.acquire(Endpoint.WRITE, "client"));
+        aimd.release(Endpoint.WRITE, "client", 0, true);
+        assertEquals(2.5, aimd.getLimit());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Decision.ACCEPTED, aimd.acquire(Endpoint.WRITE, "client"));
+        }
+        aimd.release(Endpoint.WRITE, "client", TimeUnit.MILLISECONDS.toNanos(10), false);
+        assertEquals(3.5, aimd.getLimit());
+    }
+
+    @Test
+    void search_isMeasuredToFirstByteSoLongExportsDoNotShrinkTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter aimd = new AdaptiveConcurrencyLimiter(10, 2, 20, 0.5, 100, 20, 0.5, 0.2, 1.0,
+                new SimpleMeterRegistry());
+        LoadSheddingFilter filter = new LoadSheddingFilter(aimd, 1, new ClientResolver(ClientResolver.ClientKey.REMOTE_ADDRESS, "X-Forwarded-For"));
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/user/_search"), new MockHttpServletResponse(), (request, response) -> {
+            response.getOutputStream().write('{');
+            sleep(100);
+        });
+        assertEquals(10, aimd.getLimit());
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/user/_search"), new MockHttpServletResponse(), (request, response) -> {
+            sleep(100);
+            response.getOutputStream().write('{');
+        });
+        assertEquals(5, aimd.getLimit());
+    }
+
+    @Test
+    void request_whoseHandlerThrows_isReleasedAsFailure() {
+        AdaptiveConcurrencyLimiter aimd = new AdaptiveConcurrencyLimiter(10, 2, 20, 0.5, 100, 20, 0.5, 0.2, 1.0,
+                new SimpleMeterRegistry());
+        LoadSheddingFilter filter = new LoadSheddingFilter(aimd, 1, new ClientResolver(ClientResolver.ClientKey.REMOTE_ADDRESS, "X-Forwarded-For"));
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/api/user/1"),
+                new MockHttpServletResponse(), (request, response) -> {
+                    throw new IllegalStateException("handler failed");
+                }));
+
+        assertEquals(5, aimd.getLimit());
+        assertEquals(Decision.ACCEPTED, aimd.acquire(Endpoint.READ, "127.0.0.1"));
+    }
+
+    @Test
+    void writes_keepReservedShareWhenReadsAreSaturated() {
+        AdaptiveConcurrencyLimiter aimd = new AdaptiveConcurrencyLimiter(10, 10, 10, 0.9, 100, 1000, 0.5, 0.2, 1.0,
+                new SimpleMeterRegistry());
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(Decision.ACCEPTED, aimd.acquire(Endpoint.READ, "reader-" + i));
+        }
+        assertEquals(Decision.SHED, aimd.acquire(Endpoint.READ, "reader-8"));
+        assertEquals(Decision.SHED, aimd.acquire(Endpoint.SEARCH, "searcher"));
+        assertEquals(Decision.ACCEPTED, aimd.acquire(Endpoint.WRITE, "writer"));
+        assertEquals(Decision.ACCEPTED, aimd.acquire(Endpoint.WRITE, "writer"));
+        assertEquals(Decision.SHED, aimd.acquire(Endpoint.WRITE, "writer"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void hold(Endpoint endpoint, String client) {
+        assertEquals(Decision.ACCEPTED, limiter.acquire(endpoint, client));
+        permits.add(() -> limiter.release(endpoint, client, 0, false));
+    }
+}
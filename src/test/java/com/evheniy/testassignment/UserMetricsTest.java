@@ -0,0 +1,81 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail("metrics-" + UUID.randomUUID() + "@example.com");
+        userDto.setFirstName("Metered");
+        userDto.setLastName("User");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        userId = userService.createUser(userDto).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.removeUser(userId, null);
+    }
+
+    @Test
+    void getUser_recordsServiceTimerAndQueriesPerRequest() throws Exception {
+        mockMvc.perform(get("/api/user/{id}", userId)).andExpect(status().isOk());
+
+        Timer timer = meterRegistry.get("user.service").tag("method", "getUser").timer();
+        assertTrue(timer.count() >= 1);
+
+        DistributionSummary queries = meterRegistry.get("user.request.queries")
+                .tag("uri", "/api/user/{id}")
+                .summary();
+        assertTrue(queries.count() >= 1);
+        assertTrue(queries.totalAmount() >= 1);
+    }
+
+    @Test
+    void getUser_unknownId_countsHandledException() throws Exception {
+        double before = meterRegistry.counter("user.api.errors", "exception", "UserNotFoundException").count();
+
+        mockMvc.perform(get("/api/user/{id}", Long.MAX_VALUE)).andExpect(status().isBadRequest());
+
+        assertEquals(before + 1, meterRegistry.counter("user.api.errors", "exception", "UserNotFoundException").count());
+    }
+
+    @Test
+    void hibernateStatistics_areExported() {
+        assertNotNull(meterRegistry.find("hibernate.query.executions").functionCounter());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+    }
+}
@@ -0,0 +1,110 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.model.User;
+import com.evheniy.testassignment.repository.UserRepository;
+import com.evheniy.testassignment.service.UserSearchVersion;
+import com.evheniy.testassignment.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserOptimisticLockingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail("lock-" + UUID.randomUUID() + "@example.com");
+        userDto.setFirstName("Locked");
+        userDto.setLastName("User");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        userDto.setPhoneNumber("111-1111");
+        userId = userService.createUser(userDto).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void updateUserFields_unchangedValues_issueNoUpdateAndKeepVersion() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long updatesBefore = statistics.getEntityUpdateCount();
+
+        UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
+        fieldsDto.setPhoneNumber("111-1111");
+        userService.updateUserFields(userId, fieldsDto, null);
+
+        assertEquals(updatesBefore, statistics.getEntityUpdateCount());
+        assertEquals(0L, userRepository.findById(userId).orElseThrow().getVersion());
+
+        fieldsDto.setPhoneNumber("222-2222");
+        userService.updateUserFields(userId, fieldsDto, null);
+
+        assertEquals(updatesBefore + 1, statistics.getEntityUpdateCount());
+        assertEquals(1L, userRepository.findById(userId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void staleWrite_afterConcurrentPatch_failsInsteadOfLosingTheUpdate() {
+        UserUpdateFieldsDto concurrentPatch = new UserUpdateFieldsDto();
+        concurrentPatch.setFirstName("Concurrent");
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            User stale = userRepository.findById(userId).orElseThrow();
+            CompletableFuture.runAsync(() -> userService.updateUserFields(userId, concurrentPatch, null)).join();
+            stale.setLastName("Stale");
+            userRepository.flush();
+        }));
+
+        User user = userRepository.findById(userId).orElseThrow();
+        assertEquals("Concurrent", user.getFirstName());
+        assertEquals("User", user.getLastName());
+    }
+
+    @Test
+    void searchVersion_matchesVersionDerivedFromFetchedRowsAndChangesOnUpdate() {
+        UserDateRangeDto range = new UserDateRangeDto(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 1));
+        String before = userService.getSearchVersion(range);
+        assertEquals(before, UserSearchVersion.of(userService.findUsersByBirthDateRange(range)));
+
+        UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
+        fieldsDto.setFirstName("Renamed");
+        userService.updateUserFields(userId, fieldsDto, null);
+
+        String after = userService.getSearchVersion(range);
+        assertNotEquals(before, after);
+        assertEquals(after, UserSearchVersion.of(userService.findUsersByBirthDateRange(range)));
+    }
+}
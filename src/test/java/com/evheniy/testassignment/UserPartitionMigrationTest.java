@@ -0,0 +1,141 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.service.UserPartitionBackfill;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserPartitionMigrationTest {
+
+    private static final String SCHEMA = "partition_migration_test";
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.xml";
+    private static final String PARTITIONED_CHANGELOG = "db/changelog/db.changelog-partitioned.xml";
+    private static final int SEEDED_USERS = 20_000;
+    private static final String IS_PARTITIONED = "SELECT count(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('users')";
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(url, username, password);
+        execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        execute("CREATE SCHEMA " + SCHEMA);
+        execute("SET search_path TO " + SCHEMA + ", public");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (!connection.getAutoCommit()) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        connection.close();
+    }
+
+    @Test
+    void partitionMigration_withWritesDuringBackfill_swapsInPartitionedTable() throws Exception {
+        update(CHANGELOG);
+        execute("INSERT INTO users (email, first_name, last_name, birth_date) " +
+                "SELECT 'partition-' || n || '@example.com', 'First', 'Last', DATE '1930-01-01' + (n % 30000) " +
+                "FROM generate_series(1, " + SEEDED_USERS + ") AS n");
+
+        update(PARTITIONED_CHANGELOG);
+        assertEquals(0, count(IS_PARTITIONED));
+
+        long movedId = count("SELECT min(id) FROM users");
+        execute("UPDATE users SET birth_date = DATE '1995-05-05', version = version + 1 WHERE id = " + movedId);
+        execute("DELETE FROM users WHERE id = (SELECT min(id) FROM users WHERE id > " + movedId + ")");
+        execute("INSERT INTO users (email, first_name, last_name, birth_date) " +
+                "VALUES ('during-backfill@example.com', 'New', 'User', DATE '1991-01-01')");
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(connection, true);
+        UserPartitionBackfill backfill = new UserPartitionBackfill(new JdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(backfill, "batchSize", 7_000);
+        ReflectionTestUtils.setField(backfill, "pauseMillis", 0L);
+        assertEquals(SEEDED_USERS, backfill.backfill());
+
+        update(PARTITIONED_CHANGELOG);
+        execute("ANALYZE users");
+
+        assertEquals(1, count(IS_PARTITIONED));
+        assertEquals(SEEDED_USERS, count("SELECT count(*) FROM users"));
+        assertEquals(SEEDED_USERS, count("SELECT count(*) FROM user_emails"));
+        assertEquals(SEEDED_USERS, count("SELECT sum(user_count) FROM user_birth_date_counts"));
+        assertEquals(1, count("SELECT count(*) FROM users_p1990 WHERE id = " + movedId + " AND version = 1"));
+        assertEquals(1, count("SELECT count(*) FROM pg_indexes WHERE schemaname = '" + SCHEMA + "' " +
+                "AND indexname = 'idx_users_birth_date_id' AND indexdef LIKE '%version%'"));
+        assertEquals(0, count("SELECT count(*) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "WHERE c.relnamespace = '" + SCHEMA + "'::regnamespace AND NOT i.indisvalid"));
+
+        String plan = QueryPlans.explain(connection, "SELECT id, email FROM users " +
+                "WHERE birth_date BETWEEN DATE '1990-01-01' AND DATE '1990-06-30' ORDER BY birth_date, id");
+        assertTrue(plan.contains("users_p1990"), plan);
+        assertFalse(plan.contains("users_p1980") || plan.contains("users_pdefault"), plan);
+
+        String movedCount = "SELECT sum(user_count) FROM user_birth_date_counts WHERE birth_date = DATE '1975-01-01'";
+        long countBeforeMove = count(movedCount);
+        execute("UPDATE users SET birth_date = DATE '1975-01-01', email = 'moved@example.com' WHERE id = " + movedId);
+        assertEquals(1, count("SELECT count(*) FROM user_emails WHERE email = 'moved@example.com' AND user_id = " + movedId));
+        assertEquals(countBeforeMove + 1, count(movedCount));
+
+        SQLException duplicate = assertThrows(SQLException.class, () -> execute(
+                "INSERT INTO users (email, first_name, last_name, birth_date) " +
+                        "VALUES ('Partition-42@Example.com', 'First', 'Last', DATE '2001-01-01')"));
+        assertEquals("23505", duplicate.getSQLState());
+    }
+
+    private void update(String changelog) throws Exception {
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        database.setDefaultSchemaName(SCHEMA);
+        new Liquibase(changelog, new ClassLoaderResourceAccessor(), database).update(new Contexts(), new LabelExpression());
+        connection.setAutoCommit(true);
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql); ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.evheniy.testassignment;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plan assertions need a table large enough for the planner to prefer the indexes, so it is seeded once per class
+// and committed; the tests here only read it.
+@SpringBootTest
+public class UserQueryPlanTest {
+
+    private static final int SEEDED_USERS = 200_000;
+    private static final String EMAIL_PREFIX = "plan-test-";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seedUsers(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("""
+                INSERT INTO users (email, first_name, last_name, birth_date)
+                SELECT ? || n || '@example.com', 'First' || n, 'Last' || n,
+                       DATE '1940-01-01' + (n % 25000)
+                FROM generate_series(1, ?) AS n
+                """, EMAIL_PREFIX, SEEDED_USERS);
+        jdbcTemplate.execute("ANALYZE users");
+    }
+
+    @AfterAll
+    static void deleteUsers(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", EMAIL_PREFIX + "%");
+        jdbcTemplate.execute("ANALYZE users");
+    }
+
+    @Test
+    void textSearch_usesTrigramIndex() {
+        String plan = QueryPlans.explain(jdbcTemplate, """
+                SELECT u.* FROM users u
+                WHERE 'zephyr' <% lower(u.first_name || ' ' || u.last_name || ' ' || u.email)
+                LIMIT 21
+                """);
+
+        assertTrue(plan.contains("idx_users_search_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void birthDateSearch_usesBirthDateIdIndex() {
+        String plan = QueryPlans.explain(jdbcTemplate, """
+                SELECT id, email, first_name, last_name, birth_date FROM users
+                WHERE birth_date BETWEEN DATE '1990-01-01' AND DATE '1990-03-01'
+                ORDER BY birth_date, id
+                """);
+
+        assertTrue(plan.contains("idx_users_birth_date_id"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void keysetPageQuery_usesBirthDateIdIndexWithoutSort() {
+        String plan = QueryPlans.explain(jdbcTemplate, """
+                SELECT id, email, first_name, last_name, birth_date FROM users
+                WHERE birth_date BETWEEN DATE '1950-01-01' AND DATE '2000-01-01'
+                  AND (birth_date > DATE '1960-06-01' OR (birth_date = DATE '1960-06-01' AND id > 1000))
+                ORDER BY birth_date, id
+                LIMIT 101
+                """);
+
+        assertTrue(plan.contains("idx_users_birth_date_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void emailLookup_usesLowerEmailIndex() {
+        String plan = QueryPlans.explain(jdbcTemplate,
+                "SELECT id, email FROM users WHERE lower(email) = '" + EMAIL_PREFIX + "42@example.com'");
+
+        assertTrue(plan.contains("idx_users_email_lower"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void birthDateIndex_coversVersionForRangeFingerprint() {
+        String definition = jdbcTemplate.queryForObject(
+                "SELECT indexdef FROM pg_indexes WHERE indexname = 'idx_users_birth_date_id'", String.class);
+
+        assertTrue(definition.contains("version"), definition);
+    }
+}
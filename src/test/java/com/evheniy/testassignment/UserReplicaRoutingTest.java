@@ -0,0 +1,129 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.config.ReplicaStickinessFilter;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "user.replicas.urls=jdbc:postgresql://localhost:1/user_management," +
+                "jdbc:postgresql://localhost:5433/user_management?ApplicationName=" + UserReplicaRoutingTest.REPLICA,
+        "user.replicas.health-check-interval-ms=100",
+        "user.replicas.connection-timeout-ms=250"
+})
+@AutoConfigureMockMvc
+public class UserReplicaRoutingTest {
+
+    static final String REPLICA = "user-replica-standin";
+
+    private static final String APPLICATION_NAME = "select current_setting('application_name')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String email;
+
+    @BeforeEach
+    void waitForHealthyReplica() throws InterruptedException {
+        email = "replica-" + UUID.randomUUID() + "@example.com";
+        for (int i = 0; i < 100 && !REPLICA.equals(readOnlyApplicationName()); i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findResponseByEmail(email).ifPresent(user -> userRepository.deleteById(user.getId()));
+    }
+
+    @Test
+    void readOnlyTransactions_skipUnreachableReplicaAndUseHealthyOne() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(REPLICA, readOnlyApplicationName());
+        }
+    }
+
+    @Test
+    void writeTransactions_usePrimary() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        String applicationName = transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+
+        assertNotEquals(REPLICA, applicationName);
+    }
+
+    @Test
+    void readAfterWrite_withStickyCookie_readsFromPrimary() throws Exception {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail(email);
+        userDto.setFirstName("Sticky");
+        userDto.setLastName("Reader");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+
+        MvcResult created = mockMvc.perform(post("/api/user")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String setCookie = created.getResponse().getHeader(HttpHeaders.SET_COOKIE);
+        assertNotNull(setCookie);
+        assertTrue(setCookie.startsWith(ReplicaStickinessFilter.COOKIE_NAME + "="), setCookie);
+        Cookie cookie = created.getResponse().getCookie(ReplicaStickinessFilter.COOKIE_NAME);
+
+        double primaryRoutes = routes("primary");
+        double replicaRoutes = routes("replica");
+        mockMvc.perform(get("/api/user/by-email").param("email", email).cookie(cookie))
+                .andExpect(status().isOk());
+
+        assertEquals(primaryRoutes + 1, routes("primary"));
+        assertEquals(replicaRoutes, routes("replica"));
+    }
+
+    private String readOnlyApplicationName() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+    }
+
+    private double routes(String target) {
+        return meterRegistry.get("user.datasource.routes").tag("target", target).counter().count();
+    }
+}
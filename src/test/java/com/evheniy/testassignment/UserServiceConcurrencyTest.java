@@ -0,0 +1,79 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.exception.EmailAlreadyExistsException;
+import com.evheniy.testassignment.repository.UserRepository;
+import com.evheniy.testassignment.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void createUser_parallelDuplicateCreates_exactlyOneWinsAndOthersGetEmailAlreadyExists() throws Exception {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail("race-" + UUID.randomUUID() + "@example.com");
+        userDto.setFirstName("Race");
+        userDto.setLastName("Condition");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserResponseDto>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return userService.createUser(userDto);
+                }));
+            }
+            start.countDown();
+
+            int conflicts = 0;
+            for (Future<UserResponseDto> future : futures) {
+                try {
+                    createdIds.add(future.get().getId());
+                } catch (ExecutionException e) {
+                    assertInstanceOf(EmailAlreadyExistsException.class, e.getCause());
+                    conflicts++;
+                }
+            }
+
+            assertEquals(1, createdIds.size());
+            assertEquals(THREADS - 1, conflicts);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
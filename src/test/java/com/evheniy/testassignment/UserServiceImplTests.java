@@ -1,30 +1,55 @@
 package com.evheniy.testassignment;
 
+import com.evheniy.testassignment.dto.UserAggregationGroup;
+import com.evheniy.testassignment.dto.UserCountDto;
 import com.evheniy.testassignment.dto.UserDateRangeDto;
+import com.evheniy.testassignment.dto.UserFilterDto;
+import com.evheniy.testassignment.dto.UserFilterOperator;
+import com.evheniy.testassignment.dto.UserPageResponseDto;
 import com.evheniy.testassignment.dto.UserRequestDto;
 import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserSearchDto;
+import com.evheniy.testassignment.dto.UserSearchField;
+import com.evheniy.testassignment.dto.UserTextSearchDto;
 import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
 import com.evheniy.testassignment.exception.EmailAlreadyExistsException;
 import com.evheniy.testassignment.exception.InvalidDateRangeException;
+import com.evheniy.testassignment.exception.InvalidSearchCursorException;
+import com.evheniy.testassignment.exception.InvalidSearchFilterException;
 import com.evheniy.testassignment.exception.UserLowAgeException;
 import com.evheniy.testassignment.exception.UserNotFoundException;
+import com.evheniy.testassignment.exception.UserVersionMismatchException;
+import com.evheniy.testassignment.mapper.UserMapper;
+import com.evheniy.testassignment.mapper.UserMapperImpl;
 import com.evheniy.testassignment.model.User;
+import com.evheniy.testassignment.model.UserEventType;
+import com.evheniy.testassignment.repository.UserBucketCount;
+import com.evheniy.testassignment.repository.UserRangeFingerprint;
 import com.evheniy.testassignment.repository.UserRepository;
+import com.evheniy.testassignment.service.UserChangeService;
 import com.evheniy.testassignment.service.UserServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,8 +61,14 @@ public class UserServiceImplTests {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserMapper userMapper = new UserMapperImpl();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
-    private ModelMapper modelMapper;
+    private UserChangeService userChangeService;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -74,24 +105,60 @@ public class UserServiceImplTests {
         userResponseDto.setLastName(user.getLastName());
 
         ReflectionTestUtils.setField(userService, "minAge", 18);
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 10);
+        ReflectionTestUtils.setField(userService, "defaultBucketSize", 10);
+        ReflectionTestUtils.setField(userService, "defaultTextSearchPageSize", 2);
+        ReflectionTestUtils.setField(userService, "maxTextSearchPageSize", 10);
+        ReflectionTestUtils.setField(userService, "maxTextSearchOffset", 100);
+    }
+
+    @Test
+    void getUser_whenUserExists_returnsUser() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        UserResponseDto foundUser = userService.getUser(1L);
+
+        assertEquals(user.getId(), foundUser.getId());
+        assertEquals(user.getEmail(), foundUser.getEmail());
+    }
+
+    @Test
+    void getUser_whenUserDoesNotExist_throwsException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUser(1L));
+    }
+
+    @Test
+    void getUserByEmail_mixedCaseInput_looksUpNormalizedEmail() {
+        when(userRepository.findResponseByEmail("user@example.com")).thenReturn(Optional.of(userResponseDto));
+
+        assertSame(userResponseDto, userService.getUserByEmail(" User@Example.COM "));
+    }
+
+    @Test
+    void getUserByEmail_unknownEmail_throwsUserNotFoundException() {
+        when(userRepository.findResponseByEmail(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail("missing@example.com"));
     }
 
     @Test
     void createUser_whenUserDoesNotExist_createsUser() {
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
-        when(modelMapper.map(any(User.class), eq(UserResponseDto.class))).thenReturn(userResponseDto);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         UserResponseDto createdUser = userService.createUser(userRequestDto);
 
         assertNotNull(createdUser);
         assertEquals(user.getEmail(), createdUser.getEmail());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userChangeService).record(UserEventType.CREATED, user.getId(), createdUser);
     }
 
     @Test
     void createUser_whenUserExists_throwsException() {
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation());
 
         assertThrows(EmailAlreadyExistsException.class, () -> {
             userService.createUser(userRequestDto);
@@ -99,30 +166,75 @@ public class UserServiceImplTests {
     }
 
     @Test
-    void createUser_whenUserIsTooYoung_throwsUserLowAgeException() {
+    void createUser_whenOtherIntegrityViolation_rethrowsIt() {
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("not null", new SQLException("null value", "23502")));
 
-        userRequestDto.setBirthDate(LocalDate.of(2022, 5, 12));
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUser(userRequestDto));
+    }
 
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+    @Test
+    void createUser_whenOtherUniqueConstraintIsViolated_rethrowsIt() {
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation("users_pkey"));
 
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUser(userRequestDto));
+    }
+
+    @Test
+    void createUser_whenUserIsTooYoung_throwsUserLowAgeException() {
+
+        userRequestDto.setBirthDate(LocalDate.of(2022, 5, 12));
 
         assertThrows(UserLowAgeException.class, () -> userService.createUser(userRequestDto),
                 "User must be at least " + minAge + " years old.");
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
     void updateUser_whenUserExists_updatesUser() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
-        when(modelMapper.map(any(User.class), eq(UserResponseDto.class))).thenReturn(userResponseDto);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        userRequestDto.setPhoneNumber("0987654321");
 
-        UserResponseDto updatedUser = userService.updateUser(1L, userRequestDto);
+        UserResponseDto updatedUser = userService.updateUser(1L, userRequestDto, null);
 
         assertNotNull(updatedUser);
         assertEquals(user.getEmail(), updatedUser.getEmail());
-        verify(userRepository).save(user);
+        assertEquals("0987654321", user.getPhoneNumber());
+        verify(userRepository).saveAndFlush(user);
+    }
+
+    @Test
+    void updateUser_whenNothingChanges_skipsSave() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+
+        UserResponseDto updatedUser = userService.updateUser(1L, userRequestDto, null);
+
+        assertEquals(user.getEmail(), updatedUser.getEmail());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+        verifyNoInteractions(userChangeService);
+    }
+
+    @Test
+    void updateUserFields_whenValuesMatchCurrentState_skipsSave() {
+        UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
+        fieldsDto.setFirstName(user.getFirstName());
+        fieldsDto.setPhoneNumber(user.getPhoneNumber());
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+
+        userService.updateUserFields(1L, fieldsDto, null);
+
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void updateUser_whenEmailTakenByAnotherUser_throwsEmailAlreadyExistsException() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation());
+        userRequestDto.setEmail("taken@example.com");
+
+        assertThrows(EmailAlreadyExistsException.class, () -> userService.updateUser(1L, userRequestDto, null));
     }
 
     @Test
@@ -130,7 +242,7 @@ public class UserServiceImplTests {
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> {
-            userService.updateUser(1L, userRequestDto);
+            userService.updateUser(1L, userRequestDto, null);
         });
     }
 
@@ -147,14 +259,13 @@ public class UserServiceImplTests {
         existingUser.setId(1L);
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(any(User.class))).thenReturn(existingUser);
-        when(modelMapper.map(any(User.class), eq(UserResponseDto.class))).thenReturn(userResponseDto);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(existingUser);
 
-        UserResponseDto updatedUser = userService.updateUserFields(1L, fieldsDto);
+        UserResponseDto updatedUser = userService.updateUserFields(1L, fieldsDto, null);
 
         assertNotNull(updatedUser);
         assertEquals("UpdatedFirstName", existingUser.getFirstName());
-        verify(userRepository).save(existingUser);
+        verify(userRepository).saveAndFlush(existingUser);
     }
 
     @Test
@@ -162,9 +273,10 @@ public class UserServiceImplTests {
         when(userRepository.existsById(anyLong())).thenReturn(true);
         doNothing().when(userRepository).deleteById(anyLong());
 
-        userService.removeUser(1L);
+        userService.removeUser(1L, null);
 
         verify(userRepository).deleteById(1L);
+        verify(userChangeService).record(UserEventType.DELETED, 1L, null);
     }
 
     @Test
@@ -172,20 +284,67 @@ public class UserServiceImplTests {
         when(userRepository.existsById(anyLong())).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> {
-            userService.removeUser(1L);
+            userService.removeUser(1L, null);
         });
     }
 
+    @Test
+    void updateUserFields_whenIfMatchVersionIsStale_throwsWithoutSaving() {
+        user.setVersion(3L);
+        UserUpdateFieldsDto fieldsDto = new UserUpdateFieldsDto();
+        fieldsDto.setFirstName("Changed");
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+
+        assertThrows(UserVersionMismatchException.class, () -> userService.updateUserFields(1L, fieldsDto, 2L));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void removeUser_whenIfMatchVersionMatches_deletesLoadedUser() {
+        user.setVersion(3L);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+
+        userService.removeUser(1L, 3L);
+
+        verify(userRepository).delete(user);
+        verify(userRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void getSearchVersion_changesWhenRangeContentChanges() {
+        UserDateRangeDto dateRangeDto = new UserDateRangeDto(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31));
+        UserRangeFingerprint before = fingerprint(2L, 5L, 30L);
+        UserRangeFingerprint after = fingerprint(2L, 5L, 10L);
+        when(userRepository.findRangeFingerprint(any(LocalDate.class), any(LocalDate.class))).thenReturn(before, after);
+
+        assertNotEquals(userService.getSearchVersion(dateRangeDto), userService.getSearchVersion(dateRangeDto));
+    }
+
+    @Test
+    void countUsersByBirthDateRange_defaultBucketSize_returnsBucketCounts() {
+        UserDateRangeDto dateRangeDto = new UserDateRangeDto(LocalDate.of(1950, 1, 1), LocalDate.of(2000, 12, 31));
+        UserBucketCount bucket = mock(UserBucketCount.class);
+        when(bucket.getBucket()).thenReturn(30);
+        when(bucket.getUsers()).thenReturn(42L);
+        when(userRepository.countByBirthDateBetween(dateRangeDto.getStartDate(), dateRangeDto.getEndDate(), "AGE_BUCKET", 10))
+                .thenReturn(List.of(bucket));
+
+        List<UserCountDto> counts = userService.countUsersByBirthDateRange(dateRangeDto, UserAggregationGroup.AGE_BUCKET, null);
+
+        assertEquals(List.of(new UserCountDto(30, 42L)), counts);
+        verify(userRepository, never()).findResponsesByBirthDateBetween(any(LocalDate.class), any(LocalDate.class));
+    }
+
     @Test
     void findUsersByBirthDateRange_validRange_returnsUsers() {
-        when(userRepository.findByBirthDateBetween(any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(Collections.singletonList(user));
-        when(modelMapper.map(any(User.class), eq(UserResponseDto.class))).thenReturn(userResponseDto);
+        when(userRepository.findResponsesByBirthDateBetween(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Collections.singletonList(userResponseDto));
 
         List<UserResponseDto> users = userService.findUsersByBirthDateRange(new UserDateRangeDto(LocalDate.now().minusDays(10), LocalDate.now()));
 
         assertFalse(users.isEmpty());
         assertEquals(1, users.size());
+        assertEquals(1, meterRegistry.get("user.search.results").tag("mode", "list").summary().totalAmount());
     }
 
     @Test
@@ -197,4 +356,148 @@ public class UserServiceImplTests {
         });
     }
 
+    @Test
+    void findUsersPageByBirthDateRange_moreRowsThanPageSize_returnsNextCursor() {
+        UserResponseDto first = new UserResponseDto(1L, "first@example.com", "First", "Last", LocalDate.of(2000, 1, 1));
+        UserResponseDto second = new UserResponseDto(2L, "second@example.com", "First", "Last", LocalDate.of(2000, 1, 2));
+        UserResponseDto third = new UserResponseDto(3L, "third@example.com", "First", "Last", LocalDate.of(2000, 1, 3));
+
+        when(userRepository.findResponsePage(any(LocalDate.class), any(LocalDate.class), eq(Limit.of(3))))
+                .thenReturn(new ArrayList<>(List.of(first, second, third)));
+
+        UserDateRangeDto dateRangeDto = new UserDateRangeDto(LocalDate.of(1990, 1, 1), LocalDate.of(2010, 1, 1));
+        UserPageResponseDto page = userService.findUsersPageByBirthDateRange(dateRangeDto, null, null);
+
+        assertEquals(List.of(first, second), page.getUsers());
+        assertNotNull(page.getNextCursor());
+
+        when(userRepository.findResponsePageAfter(any(LocalDate.class), any(LocalDate.class),
+                eq(LocalDate.of(2000, 1, 2)), eq(2L), eq(Limit.of(3))))
+                .thenReturn(new ArrayList<>(List.of(third)));
+
+        UserPageResponseDto lastPage = userService.findUsersPageByBirthDateRange(dateRangeDto, page.getNextCursor(), null);
+
+        assertEquals(List.of(third), lastPage.getUsers());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void findUsersPageByBirthDateRange_invalidCursor_throwsException() {
+        UserDateRangeDto dateRangeDto = new UserDateRangeDto(LocalDate.of(1990, 1, 1), LocalDate.of(2010, 1, 1));
+
+        assertThrows(InvalidSearchCursorException.class, () ->
+                userService.findUsersPageByBirthDateRange(dateRangeDto, "not-a-cursor", 5));
+    }
+
+    @Test
+    void findUsers_withoutCriteria_usesBirthDateRangeQuery() {
+        UserSearchDto searchDto = new UserSearchDto(LocalDate.of(1990, 1, 1), LocalDate.of(2010, 1, 1));
+        when(userRepository.findResponsesByBirthDateBetween(searchDto.getStartDate(), searchDto.getEndDate()))
+                .thenReturn(List.of(userResponseDto));
+
+        assertEquals(List.of(userResponseDto), userService.findUsers(searchDto));
+        verify(userRepository, never()).findResponses(any());
+    }
+
+    @Test
+    void findUsers_withFilters_usesCriteriaQuery() {
+        UserSearchDto searchDto = new UserSearchDto(LocalDate.of(1990, 1, 1), LocalDate.of(2010, 1, 1));
+        searchDto.getFilters().add(new UserFilterDto(UserSearchField.PHONE_NUMBER, UserFilterOperator.IS_NOT_NULL, null));
+        when(userRepository.findResponses(searchDto)).thenReturn(List.of(userResponseDto));
+
+        assertEquals(List.of(userResponseDto), userService.findUsers(searchDto));
+    }
+
+    @Test
+    void findUsers_invalidCriteria_throwsException() {
+        assertThrows(InvalidSearchFilterException.class, () -> userService.findUsers(
+                searchWithFilter(new UserFilterDto(UserSearchField.BIRTH_DATE, UserFilterOperator.PREFIX, "19"))));
+        assertThrows(InvalidSearchFilterException.class, () -> userService.findUsers(
+                searchWithFilter(new UserFilterDto(UserSearchField.BIRTH_DATE, UserFilterOperator.GT, "yesterday"))));
+        assertThrows(InvalidSearchFilterException.class, () -> userService.findUsers(
+                searchWithFilter(new UserFilterDto(UserSearchField.ADDRESS, UserFilterOperator.IS_NULL, "x"))));
+        assertThrows(InvalidSearchFilterException.class, () -> userService.findUsers(
+                searchWithFilter(new UserFilterDto(UserSearchField.ID, UserFilterOperator.EQ, null))));
+
+        UserSearchDto projection = new UserSearchDto(LocalDate.of(1990, 1, 1), LocalDate.of(2010, 1, 1));
+        projection.getFields().add(UserSearchField.PHONE_NUMBER);
+        assertThrows(InvalidSearchFilterException.class, () -> userService.findUsers(projection));
+        verify(userRepository, never()).findResponses(any());
+    }
+
+    private UserSearchDto searchWithFilter(UserFilterDto filter) {
+        UserSearchDto searchDto = new UserSearchDto(LocalDate.of(1990, 1, 1), LocalDate.of(2010, 1, 1));
+        searchDto.getFilters().add(filter);
+        return searchDto;
+    }
+
+    @Test
+    void searchUsers_moreMatchesThanPageSize_returnsOffsetCursor() {
+        when(userRepository.searchByText("jo_n", "jo\\_n%", 3, 0)).thenReturn(List.of(user, user, user));
+        when(userRepository.searchByText("jo_n", "jo\\_n%", 3, 2)).thenReturn(List.of(user));
+
+        UserPageResponseDto page = userService.searchUsers(new UserTextSearchDto("  Jo_N "), null, null);
+
+        assertEquals(2, page.getUsers().size());
+        assertEquals("2", page.getNextCursor());
+
+        UserPageResponseDto lastPage = userService.searchUsers(new UserTextSearchDto("Jo_N"), page.getNextCursor(), null);
+
+        assertEquals(1, lastPage.getUsers().size());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void searchUsers_invalidCursor_throwsException() {
+        assertThrows(InvalidSearchCursorException.class, () ->
+                userService.searchUsers(new UserTextSearchDto("john"), "-1", 5));
+    }
+
+    @Test
+    void searchUsers_cursorBeyondMaxOffset_throwsException() {
+        assertThrows(InvalidSearchCursorException.class, () ->
+                userService.searchUsers(new UserTextSearchDto("john"), "101", 5));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void searchUsers_pageReachingMaxOffset_returnsNoNextCursor() {
+        when(userRepository.searchByText("john", "john%", 6, 100)).thenReturn(List.of(user, user, user, user, user, user));
+
+        UserPageResponseDto page = userService.searchUsers(new UserTextSearchDto("john"), "100", 5);
+
+        assertEquals(5, page.getUsers().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void streamUsersByBirthDateRange_validRange_passesEveryRowToConsumer() {
+        when(userRepository.streamResponsesByBirthDateBetween(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Stream.of(userResponseDto));
+
+        List<UserResponseDto> streamed = new ArrayList<>();
+        userService.streamUsersByBirthDateRange(
+                new UserDateRangeDto(LocalDate.of(1990, 1, 1), LocalDate.of(2010, 1, 1)), streamed::add);
+
+        assertEquals(List.of(userResponseDto), streamed);
+    }
+
+    private UserRangeFingerprint fingerprint(Long count, Long maxVersion, Long hash) {
+        UserRangeFingerprint fingerprint = mock(UserRangeFingerprint.class);
+        when(fingerprint.getCount()).thenReturn(count);
+        when(fingerprint.getMaxVersion()).thenReturn(maxVersion);
+        when(fingerprint.getHash()).thenReturn(hash);
+        return fingerprint;
+    }
+
+    private DataIntegrityViolationException uniqueViolation() {
+        return uniqueViolation("idx_users_email_lower");
+    }
+
+    private DataIntegrityViolationException uniqueViolation(String constraintName) {
+        String message = "duplicate key value violates unique constraint \"" + constraintName + "\"";
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException(message, new SQLException(message, "23505"), constraintName));
+    }
+
 }
@@ -0,0 +1,67 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserPageResponseDto;
+import com.evheniy.testassignment.dto.UserResponseDto;
+import com.evheniy.testassignment.dto.UserTextSearchDto;
+import com.evheniy.testassignment.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class UserTextSearchTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void seedUsers() {
+        jdbcTemplate.update("""
+                INSERT INTO users (email, first_name, last_name, birth_date) VALUES
+                    ('zephyrine.quillfeather@example.com', 'Zephyrine', 'Quillfeather', DATE '1990-01-01'),
+                    ('z.marlowe@example.com', 'Anna', 'Zephyrinesky', DATE '1991-01-01'),
+                    ('bartholomew.zephyr@example.com', 'Bartholomew', 'Zephyr', DATE '1992-01-01')
+                """);
+    }
+
+    @Test
+    void searchUsers_prefixMatchesRankBeforeFuzzyMatches() {
+        UserPageResponseDto page = userService.searchUsers(new UserTextSearchDto("Zephyrin"), null, 10);
+
+        List<String> emails = page.getUsers().stream().map(UserResponseDto::getEmail).toList();
+        assertEquals(List.of("zephyrine.quillfeather@example.com", "z.marlowe@example.com"), emails.subList(0, 2));
+    }
+
+    @Test
+    void searchUsers_misspelledQuery_findsUser() {
+        UserPageResponseDto page = userService.searchUsers(new UserTextSearchDto("quilfeather"), null, 10);
+
+        assertEquals("zephyrine.quillfeather@example.com", page.getUsers().get(0).getEmail());
+    }
+
+    @Test
+    void searchUsers_followingCursors_visitsEveryMatchOnce() {
+        Set<Long> ids = new HashSet<>();
+        String cursor = null;
+        do {
+            UserPageResponseDto page = userService.searchUsers(new UserTextSearchDto("zephyr"), cursor, 1);
+            page.getUsers().forEach(user -> assertTrue(ids.add(user.getId())));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(3, ids.size());
+    }
+}
@@ -0,0 +1,228 @@
+package com.evheniy.testassignment;
+
+import com.evheniy.testassignment.dto.UserAsyncUpdateDto;
+import com.evheniy.testassignment.dto.UserAsyncUpdateStatus;
+import com.evheniy.testassignment.dto.UserRequestDto;
+import com.evheniy.testassignment.dto.UserUpdateFieldsDto;
+import com.evheniy.testassignment.mapper.UserMapper;
+import com.evheniy.testassignment.model.User;
+import com.evheniy.testassignment.repository.UserRepository;
+import com.evheniy.testassignment.service.UserBulkService;
+import com.evheniy.testassignment.service.UserService;
+import com.evheniy.testassignment.service.UserWriteBehindService;
+import com.evheniy.testassignment.service.UserWriteBehindServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "user.write-behind.log-file=target/write-behind-test/user-write-behind.log",
+        "user.write-behind.flush-interval-ms=100"
+})
+@AutoConfigureMockMvc
+public class UserWriteBehindTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserWriteBehindService userWriteBehindService;
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = createUser("write-behind-" + UUID.randomUUID() + "@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.removeUser(userId, null);
+    }
+
+    @Test
+    void asyncPatches_toSameUser_areCoalescedAndReportedAsUpdated() throws Exception {
+        List<String> trackingIds = new ArrayList<>();
+        for (String body : List.of("{\"firstName\":\"First\"}", "{\"lastName\":\"Synced\"}",
+                "{\"firstName\":\"Second\",\"address\":\"Kyiv\"}")) {
+            String response = mockMvc.perform(patch("/api/user/{id}", userId)
+                            .header("Prefer", "respond-async")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().exists(HttpHeaders.LOCATION))
+                    .andReturn().getResponse().getContentAsString();
+            trackingIds.add(objectMapper.readValue(response, UserAsyncUpdateDto.class).getTrackingId());
+        }
+
+        for (String trackingId : trackingIds) {
+            assertEquals(UserAsyncUpdateStatus.UPDATED, awaitOutcome(userWriteBehindService, trackingId).getStatus());
+        }
+        mockMvc.perform(get("/api/user/_async/{trackingId}", trackingIds.get(0))).andExpect(status().isOk());
+
+        User user = userRepository.findById(userId).orElseThrow();
+        assertEquals("Second", user.getFirstName());
+        assertEquals("Synced", user.getLastName());
+        assertEquals("Kyiv", user.getAddress());
+        assertNotNull(meterRegistry.find("user.write-behind.coalesced").counter());
+    }
+
+    @Test
+    void queuedPatches_whenOneSetsTakenEmail_otherChangeIsStillApplied(@TempDir Path directory) throws Exception {
+        String takenEmail = "write-behind-taken-" + UUID.randomUUID() + "@example.com";
+        Long otherId = createUser(takenEmail);
+        UserWriteBehindServiceImpl service = newService(directory.resolve("user-write-behind.log"), Long.MAX_VALUE);
+        ReflectionTestUtils.setField(service, "flushIntervalMillis", 500L);
+        service.start();
+        try {
+            // Both land in one batch, so they are first written as one merged update.
+            UserUpdateFieldsDto email = new UserUpdateFieldsDto();
+            email.setEmail(takenEmail);
+            UserUpdateFieldsDto address = new UserUpdateFieldsDto();
+            address.setAddress("Lviv");
+            String duplicateId = service.enqueue(userId, email).getTrackingId();
+            String addressId = service.enqueue(userId, address).getTrackingId();
+
+            assertEquals(UserAsyncUpdateStatus.DUPLICATE, awaitOutcome(service, duplicateId).getStatus());
+            assertEquals(UserAsyncUpdateStatus.UPDATED, awaitOutcome(service, addressId).getStatus());
+        } finally {
+            service.stop();
+            userService.removeUser(otherId, null);
+        }
+
+        User user = userRepository.findById(userId).orElseThrow();
+        assertEquals("Lviv", user.getAddress());
+        assertNotEquals(takenEmail, user.getEmail());
+    }
+
+    @Test
+    void asyncPatch_forUnknownUser_reportsNotFound() throws Exception {
+        UserAsyncUpdateDto accepted = objectMapper.readValue(mockMvc.perform(patch("/api/user/{id}", Long.MAX_VALUE)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Nobody\"}"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString(), UserAsyncUpdateDto.class);
+
+        assertEquals(UserAsyncUpdateStatus.NOT_FOUND, awaitOutcome(userWriteBehindService, accepted.getTrackingId()).getStatus());
+        mockMvc.perform(get("/api/user/_async/{trackingId}", UUID.randomUUID().toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void queuedUpdates_leftInLogByCrash_areReplayedOnStart(@TempDir Path directory) throws Exception {
+        Path logFile = directory.resolve("user-write-behind.log");
+        String trackingId = UUID.randomUUID().toString();
+        // The second, torn line is what a crash in the middle of an append leaves behind.
+        Files.writeString(logFile, "{\"trackingId\":\"" + trackingId + "\",\"userId\":" + userId +
+                ",\"fields\":{\"firstName\":\"Replayed\"},\"status\":\"QUEUED\"}\n{\"trackingId\":\"torn");
+
+        UserWriteBehindServiceImpl restarted = newService(logFile, Long.MAX_VALUE);
+        restarted.start();
+        try {
+            assertEquals(UserAsyncUpdateStatus.UPDATED, awaitOutcome(restarted, trackingId).getStatus());
+        } finally {
+            restarted.stop();
+        }
+
+        assertEquals("Replayed", userRepository.findById(userId).orElseThrow().getFirstName());
+        List<String> lines = Files.readAllLines(logFile);
+        assertTrue(lines.get(lines.size() - 1).contains("\"status\":\"UPDATED\""));
+    }
+
+    @Test
+    void log_pastMaxLogBytes_isCompactedToOpenEntries(@TempDir Path directory) throws Exception {
+        Path logFile = directory.resolve("user-write-behind.log");
+        UserWriteBehindServiceImpl service = newService(logFile, 1);
+        service.start();
+        try {
+            for (int i = 0; i < 5; i++) {
+                UserUpdateFieldsDto fields = new UserUpdateFieldsDto();
+                fields.setFirstName("Compacted" + i);
+                String trackingId = service.enqueue(userId, fields).getTrackingId();
+                assertEquals(UserAsyncUpdateStatus.UPDATED, awaitOutcome(service, trackingId).getStatus());
+            }
+        } finally {
+            service.stop();
+        }
+
+        assertEquals(0, Files.size(logFile));
+        assertFalse(Files.exists(directory.resolve("user-write-behind.log.compact")));
+        assertEquals("Compacted4", userRepository.findById(userId).orElseThrow().getFirstName());
+    }
+
+    private Long createUser(String email) {
+        UserRequestDto userDto = new UserRequestDto();
+        userDto.setEmail(email);
+        userDto.setFirstName("Before");
+        userDto.setLastName("Sync");
+        userDto.setBirthDate(LocalDate.of(1990, 1, 1));
+        return userService.createUser(userDto).getId();
+    }
+
+    private UserWriteBehindServiceImpl newService(Path logFile, long maxLogBytes) {
+        UserWriteBehindServiceImpl service = new UserWriteBehindServiceImpl(userBulkService, userMapper,
+                objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(service, "logFile", logFile.toString());
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "flushIntervalMillis", 50L);
+        ReflectionTestUtils.setField(service, "maxLogBytes", maxLogBytes);
+        ReflectionTestUtils.setField(service, "statusSpec", "maximumSize=100");
+        return service;
+    }
+
+    private static UserAsyncUpdateDto awaitOutcome(UserWriteBehindService service, String trackingId)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        UserAsyncUpdateDto status = service.getStatus(trackingId);
+        while (status.getStatus() == UserAsyncUpdateStatus.QUEUED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = service.getStatus(trackingId);
+        }
+        return status;
+    }
+}